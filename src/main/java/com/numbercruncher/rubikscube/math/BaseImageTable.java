@@ -0,0 +1,116 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.Arrays;
+
+/**
+ * The class BaseImageTable is a hash table from base images to integer ids without boxing.
+ *
+ * All keys have the length of the base. They are stored one after the other in a single byte array, the ids in an int array,
+ * collisions are resolved by linear probing.
+ *
+ * The table is not synchronized. Several threads may read it, as long as no thread adds an entry.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class BaseImageTable {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    public static final int MISSING = -1;
+
+    private final int keyLength;
+    private byte[] keys;
+    private int[] ids;
+    private int size;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public BaseImageTable(int keyLength) {
+        this.keyLength = keyLength;
+        this.ids = new int[1 << 10];
+        Arrays.fill(ids, MISSING);
+        this.keys = new byte[ids.length * keyLength];
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    public int size() {
+        return size;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * @param key the base image
+     * @return the id of the base image or {@link #MISSING}
+     */
+    public int get(byte[] key) {
+        int mask = ids.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int id = ids[slot];
+            if (id == MISSING || matches(slot, key))
+                return id;
+        }
+    }
+
+    /**
+     * Adds the base image, if it isn't contained yet
+     *
+     * @return the id, that was stored for the base image before, or {@link #MISSING}, if the id was added
+     */
+    public int putIfAbsent(byte[] key, int id) {
+        if (2 * (size + 1) > ids.length)
+            resize();
+        int mask = ids.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int old = ids[slot];
+            if (old == MISSING) {
+                ids[slot] = id;
+                System.arraycopy(key, 0, keys, slot * keyLength, keyLength);
+                size++;
+                return MISSING;
+            }
+            if (matches(slot, key))
+                return old;
+        }
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private boolean matches(int slot, byte[] key) {
+        return Arrays.equals(keys, slot * keyLength, (slot + 1) * keyLength, key, 0, keyLength);
+    }
+
+    private int hash(byte[] key) {
+        int h = Arrays.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void resize() {
+        byte[] oldKeys = keys;
+        int[] oldIds = ids;
+        ids = new int[2 * oldIds.length];
+        Arrays.fill(ids, MISSING);
+        keys = new byte[ids.length * keyLength];
+        size = 0;
+        byte[] key = new byte[keyLength];
+        for (int slot = 0; slot < oldIds.length; slot++) {
+            if (oldIds[slot] != MISSING) {
+                System.arraycopy(oldKeys, slot * keyLength, key, 0, keyLength);
+                putIfAbsent(key, oldIds[slot]);
+            }
+        }
+    }
+}
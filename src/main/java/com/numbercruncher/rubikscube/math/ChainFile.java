@@ -0,0 +1,232 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * The class ChainFile implements the binary file format of the Minkwitz chains.
+ *
+ * header: magic, version, kind of the chain, flags, degree, alphabet with two bytes per letter
+ * levels: number of levels, for each level the orbit and for each orbit point the list of representatives.
+ *         A representative is stored as a word of packed letters and optionally as the image of its permutation.
+ * checksum: CRC32 of all previous bytes
+ *
+ * The letters are packed into four bits, when the alphabet has at most 16 letters, otherwise into one byte.
+ * The file is written with a single write to the channel and it is read through a memory mapping.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+final class ChainFile {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int MAGIC = 0x4d4b5743;//"MKWC"
+    private static final byte VERSION = 2;
+
+    static final byte MINKWITZ = 0;
+    static final byte EXTENDED = 1;
+
+    private static final byte WITH_IMAGES = 1;
+    private static final byte WIDE_LETTERS = 2;
+
+    /**
+     * the content of one level of a chain, the representatives are null for missing orbit points
+     */
+    static class Level {
+        final List<Byte> orbit;
+        final Map<Byte, List<GroupElement>> representatives;
+
+        Level(List<Byte> orbit, Map<Byte, List<GroupElement>> representatives) {
+            this.orbit = orbit;
+            this.representatives = representatives;
+        }
+    }
+
+    private ChainFile() {
+    }
+
+    /*****************************
+     **** static methods  ********
+     *****************************/
+
+    static void write(File file, byte kind, List<Level> levels, boolean withImages) throws IOException {
+        //alphabet and degree
+        TreeSet<Character> letters = new TreeSet<>();
+        int degree = 0;
+        for (Level level : levels) {
+            for (List<GroupElement> elements : level.representatives.values()) {
+                if (elements == null) continue;
+                for (GroupElement element : elements) {
+                    PackedWord word = element.getPackedWord();
+                    for (int c = 0; c < word.length(); c++) letters.add(word.charAt(c));
+                    degree = Math.max(degree, element.getPermutation().getDegree());
+                }
+            }
+        }
+        if (letters.size() > 255)
+            throw new IOException("The alphabet of the chain has more than 255 letters");
+        char[] alphabet = new char[letters.size()];
+        Map<Character, Integer> index = new HashMap<>();
+        int i = 0;
+        for (Character letter : letters) {
+            index.put(letter, i);
+            alphabet[i++] = letter;
+        }
+        boolean wide = alphabet.length > 16;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        out.writeByte((withImages ? WITH_IMAGES : 0) | (wide ? WIDE_LETTERS : 0));
+        out.writeShort(degree);
+        out.writeByte(alphabet.length);
+        for (char c : alphabet) out.writeChar(c);
+
+        out.writeShort(levels.size());
+        for (Level level : levels) {
+            out.writeShort(level.orbit.size());
+            for (Byte point : level.orbit) out.writeByte(point);
+            for (Byte point : level.orbit) {
+                List<GroupElement> elements = level.representatives.get(point);
+                int count = elements == null ? 0 : elements.size();
+                out.writeShort(count);
+                for (int e = 0; e < count; e++) {
+                    GroupElement element = elements.get(e);
+                    writeWord(out, element.getPackedWord(), index, wide);
+                    if (withImages) {
+                        byte[] image = element.getPermutation().getImage();
+                        out.write(image);
+                        //smaller permutations are padded with fixed points
+                        for (int p = image.length; p < degree; p++) out.writeByte(p);
+                    }
+                }
+            }
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        byte[] content = bytes.toByteArray();
+        crc.update(content);
+        ByteBuffer buffer = ByteBuffer.allocate(content.length + 4);
+        buffer.put(content).putInt((int) crc.getValue()).flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /**
+     * @param file the chain file
+     * @param kind the expected kind of the chain
+     * @param evaluator computes the permutation of a word, when the file doesn't contain images. It can be null otherwise.
+     * @return the levels of the chain
+     * @throws IOException if the file cannot be read, has the wrong format or a wrong checksum
+     */
+    static List<Level> read(File file, byte kind, Function<String, GroupElement> evaluator) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int size = (int) channel.size();
+            if (size < 4)
+                throw new IOException("Chain file " + file + " is truncated");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            ByteBuffer content = buffer.duplicate();
+            content.limit(size - 4);
+            crc.update(content);
+            if (buffer.getInt(size - 4) != (int) crc.getValue())
+                throw new IOException("Wrong checksum of the chain file " + file);
+
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+                throw new IOException("Unknown format of the chain file " + file);
+            if (buffer.get() != kind)
+                throw new IOException("The chain file " + file + " contains a different kind of chain");
+            byte flags = buffer.get();
+            boolean withImages = (flags & WITH_IMAGES) != 0;
+            boolean wide = (flags & WIDE_LETTERS) != 0;
+            if (!withImages && evaluator == null)
+                throw new IOException("The chain file " + file + " contains no permutations");
+            int degree = buffer.getShort();
+            char[] alphabet = new char[buffer.get() & 0xff];
+            for (int i = 0; i < alphabet.length; i++) alphabet[i] = buffer.getChar();
+            PackedWord.Alphabet packedAlphabet = PackedWord.Alphabet.of(new String(alphabet));
+
+            int numberOfLevels = buffer.getShort();
+            List<Level> levels = new ArrayList<>(numberOfLevels);
+            for (int l = 0; l < numberOfLevels; l++) {
+                List<Byte> orbit = new ArrayList<>();
+                int orbitSize = buffer.getShort();
+                for (int i = 0; i < orbitSize; i++) orbit.add(buffer.get());
+
+                Map<Byte, List<GroupElement>> representatives = new HashMap<>();
+                for (Byte point : orbit) {
+                    int count = buffer.getShort();
+                    List<GroupElement> elements = null;
+                    if (count > 0) {
+                        elements = new ArrayList<>(count);
+                        for (int e = 0; e < count; e++) {
+                            String word = readWord(buffer, alphabet, wide);
+                            if (withImages) {
+                                byte[] image = new byte[degree];
+                                buffer.get(image);
+                                elements.add(new GroupElement(new Permutation(image), PackedWord.of(word, packedAlphabet)));
+                            } else {
+                                elements.add(evaluator.apply(word));
+                            }
+                        }
+                    }
+                    representatives.put(point, elements);
+                }
+                levels.add(new Level(orbit, representatives));
+            }
+            return levels;
+        }
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private static void writeWord(DataOutputStream out, CharSequence word, Map<Character, Integer> index, boolean wide) throws IOException {
+        int length = word.length();
+        out.writeInt(length);
+        if (wide) {
+            for (int i = 0; i < length; i++) out.writeByte(index.get(word.charAt(i)));
+        } else {
+            for (int i = 0; i < length; i += 2) {
+                int high = index.get(word.charAt(i));
+                int low = i + 1 < length ? index.get(word.charAt(i + 1)) : 0;
+                out.writeByte(high << 4 | low);
+            }
+        }
+    }
+
+    private static String readWord(ByteBuffer buffer, char[] alphabet, boolean wide) {
+        int length = buffer.getInt();
+        char[] word = new char[length];
+        if (wide) {
+            for (int i = 0; i < length; i++) word[i] = alphabet[buffer.get() & 0xff];
+        } else {
+            for (int i = 0; i < length; i += 2) {
+                int packed = buffer.get() & 0xff;
+                word[i] = alphabet[packed >> 4];
+                if (i + 1 < length) word[i + 1] = alphabet[packed & 0x0f];
+            }
+        }
+        return new String(word);
+    }
+}
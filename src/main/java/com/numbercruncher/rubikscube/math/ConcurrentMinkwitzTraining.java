@@ -0,0 +1,354 @@
+package com.numbercruncher.rubikscube.math;
+
+import com.numbercruncher.rubikscube.logger.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * The class ConcurrentMinkwitzTraining trains Minkwitz chains with several worker threads.
+ *
+ * The training stream of the group iterator is cut into chunks, which are sifted by the workers against shared levels.
+ * Each level keeps its coset representatives in an array of atomic slots, that is indexed by the orbit point.
+ * A slot is only replaced by compare-and-set, when the new word is shorter than the current one.
+ * Therefore, no locks are needed and the result has the same quality as the sequential training.
+ *
+ * The training elements are augmented by their symmetry conjugates and inverses, if the augmentation of the group is switched on.
+ *
+ * The representatives are written back into the chain, when the training is finished. If a worker fails, no more chunks are
+ * submitted, the failure is rethrown, after all workers are finished, and the chain is not changed.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class ConcurrentMinkwitzTraining {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final PermutationGroup group;
+    private final int numberOfThreads;
+    private RewritingSystem rewritingSystem;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public ConcurrentMinkwitzTraining(PermutationGroup group, int numberOfThreads) {
+        this.group = group;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    public ConcurrentMinkwitzTraining(PermutationGroup group) {
+        this(group, Runtime.getRuntime().availableProcessors());
+    }
+
+    /*****************************
+     **** Setter    **************
+     *****************************/
+
+    /**
+     * The rules are applied to the products of the extended training
+     * @param simplifyingRules
+     */
+    public void setSimplifyingRules(TreeMap<String, String> simplifyingRules) {
+        this.rewritingSystem = simplifyingRules == null ? null : new RewritingSystem(simplifyingRules);
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Trains the Minkwitz chain with the elements start...end of the group iterator.
+     *
+     * @param minkwitzChain the chain is updated, when all workers are finished
+     * @param start the first element that is used for training
+     * @param end the last element that is used for training
+     * @return the trained chain
+     * @throws IllegalStateException if a worker failed with a checked exception, runtime exceptions and errors are rethrown as they are
+     */
+    public MinkwitzChain train(MinkwitzChain minkwitzChain, int start, int end) {
+        List<MinkwitzChain> chainLevels = new ArrayList<>();
+        for (MinkwitzChain level = minkwitzChain; !level.isLast(); level = level.getStabilizerChain())
+            chainLevels.add(level);
+
+        List<Level<GroupElement>> levels = new ArrayList<>();
+        for (MinkwitzChain chainLevel : chainLevels) {
+            Level<GroupElement> level = new Level<>(chainLevel.getOrbit().get(0), group.getDegree());
+            for (Byte point : chainLevel.getOrbit()) {
+                GroupElement rep = chainLevel.getCosetRepresentative(point);
+                if (rep != null)
+                    level.slots.set(point, publish(rep));
+            }
+            levels.add(level);
+        }
+
+        long startTime = System.currentTimeMillis();
+        feed(start, end, g -> sift(levels, 0, g));
+        Logger.logging(Logger.Level.info, "Concurrent training of " + (end - start + 1) + " elements with " + numberOfThreads + " threads in " + (System.currentTimeMillis() - startTime) + " ms\n");
+
+        //write back
+        for (int l = 0; l < levels.size(); l++) {
+            MinkwitzChain chainLevel = chainLevels.get(l);
+            for (Byte point : chainLevel.getOrbit()) {
+                GroupElement rep = levels.get(l).slots.get(point);
+                if (rep != null)
+                    chainLevel.addCosetRepresentative(point, rep);
+            }
+        }
+        return minkwitzChain;
+    }
+
+    /**
+     * Trains the extended Minkwitz chain with the elements start...end of the group iterator.
+     * The sets of representatives are copied on write, such that the workers only see complete sets.
+     *
+     * @param extendedMinkwitzChain the chain is updated, when all workers are finished
+     * @param start the first element that is used for training
+     * @param end the last element that is used for training
+     * @param maxBranching the maximal number of representatives that are combined with a new element
+     * @return the trained chain
+     * @throws IllegalStateException if a worker failed with a checked exception, runtime exceptions and errors are rethrown as they are
+     */
+    public ExtendedMinkwitzChain train(ExtendedMinkwitzChain extendedMinkwitzChain, int start, int end, int maxBranching) {
+        List<ExtendedMinkwitzChain> chainLevels = new ArrayList<>();
+        for (ExtendedMinkwitzChain level = extendedMinkwitzChain; !level.isLast(); level = level.getStabilizerChain())
+            chainLevels.add(level);
+
+        List<Level<TreeSet<GroupElement>>> levels = new ArrayList<>();
+        for (ExtendedMinkwitzChain chainLevel : chainLevels) {
+            Level<TreeSet<GroupElement>> level = new Level<>(chainLevel.getOrbit().get(0), group.getDegree());
+            for (Byte point : chainLevel.getOrbit()) {
+                TreeSet<GroupElement> reps = chainLevel.getCosetRepresentatives(point);
+                if (reps != null && !reps.isEmpty()) {
+                    reps.forEach(this::publish);
+                    level.slots.set(point, new TreeSet<>(reps));
+                }
+            }
+            levels.add(level);
+        }
+
+        long startTime = System.currentTimeMillis();
+        feed(start, end, g -> siftExtended(levels, 0, g, maxBranching));
+        Logger.logging(Logger.Level.info, "Concurrent extended training of " + (end - start + 1) + " elements with " + numberOfThreads + " threads in " + (System.currentTimeMillis() - startTime) + " ms\n");
+
+        //write back
+        for (int l = 0; l < levels.size(); l++) {
+            ExtendedMinkwitzChain chainLevel = chainLevels.get(l);
+            for (Byte point : chainLevel.getOrbit()) {
+                TreeSet<GroupElement> reps = levels.get(l).slots.get(point);
+                if (reps != null)
+                    chainLevel.getCosetRepresentativesMap().put(point, reps);
+            }
+        }
+        return extendedMinkwitzChain;
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    /**
+     * The calling thread produces chunks of the training stream, the workers sift them.
+     * The work queue is bounded, the producer sifts a chunk itself, when all workers are busy.
+     * The futures of the chunks are checked in the order of submission, the first failure stops the production.
+     */
+    private void feed(int start, int end, Consumer<GroupElement> worker) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2 * numberOfThreads), new ThreadPoolExecutor.CallerRunsPolicy());
+        Deque<Future<?>> futures = new ArrayDeque<>();
+        try {
+            List<GroupElement> chunk = new ArrayList<>(CHUNK_SIZE);
+            int max = 0;
+            for (GroupIterator it = group.getIterator(end); it.hasNext() && max <= end; ) {
+                GroupElement element = it.next();
+                if (max >= start) {
+                    chunk.addAll(group.augment(element));
+                    if (chunk.size() >= CHUNK_SIZE) {
+                        futures.add(submit(executor, chunk, worker));
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                        //finished chunks are checked and dropped
+                        while (!futures.isEmpty() && futures.peekFirst().isDone())
+                            checkFailure(futures.pollFirst());
+                    }
+                }
+                max++;
+            }
+            if (!chunk.isEmpty())
+                futures.add(submit(executor, chunk, worker));
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Future<?> future : futures)
+            checkFailure(future);
+    }
+
+    private static Future<?> submit(ThreadPoolExecutor executor, List<GroupElement> chunk, Consumer<GroupElement> worker) {
+        return executor.submit(() -> chunk.forEach(worker));
+    }
+
+    /**
+     * rethrows the failure of a finished chunk
+     */
+    private static void checkFailure(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            Throwable failure = e.getCause();
+            Logger.logging(Logger.Level.warning, "A worker of the concurrent training failed: " + failure + "\n");
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw new IllegalStateException("A worker of the concurrent training failed", failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The concurrent training was interrupted", e);
+        }
+    }
+
+    /**
+     * the same rules as in the sequential training, but every replacement of a representative is an atomic compare-and-set.
+     */
+    private void sift(List<Level<GroupElement>> levels, int index, GroupElement g) {
+        while (index < levels.size()) {
+            Level<GroupElement> level = levels.get(index);
+            byte gamma = g.getPermutation().action(level.basePoint);
+            if (gamma == level.basePoint) {
+                //group element is element of the stabilizer group
+                index++;
+                continue;
+            }
+
+            publish(g);
+            while (true) {
+                GroupElement rep = level.slots.get(gamma);
+                if (rep == null || rep.getWordLength() > g.getWordLength()) {
+                    if (level.slots.compareAndSet(gamma, rep, g))
+                        return;
+                    //another worker changed the slot, try again
+                }
+                else {
+                    //1. g * rep^{-1}
+                    sift(levels, index + 1, g.multiply(rep.inverse()));
+                    //2. rep * g^{-1}
+                    sift(levels, index + 1, rep.multiply(g.inverse()));
+                    return;
+                }
+            }
+        }
+    }
+
+    private void siftExtended(List<Level<TreeSet<GroupElement>>> levels, int index, GroupElement g, int maxBranching) {
+        if (maxBranching < 1)
+            maxBranching = 1;
+
+        while (index < levels.size()) {
+            Level<TreeSet<GroupElement>> level = levels.get(index);
+            byte gamma = g.getPermutation().action(level.basePoint);
+            if (gamma == level.basePoint) {
+                //group element is element of the stabilizer group
+                index++;
+                maxBranching = Math.max(1, maxBranching - 1);
+                continue;
+            }
+
+            publish(g);
+            while (true) {
+                TreeSet<GroupElement> reps = level.slots.get(gamma);
+                TreeSet<GroupElement> newReps;
+                int nextBranching = maxBranching;
+                if (reps == null) {
+                    newReps = new TreeSet<>(Collections.singleton(g));
+                }
+                else {
+                    int current = reps.first().getWordLength();
+                    int length = g.getWordLength();
+                    if (current > length) {
+                        newReps = new TreeSet<>(Collections.singleton(g));
+                        nextBranching = maxBranching - 1;
+                    }
+                    else if (current == length) {
+                        newReps = new TreeSet<>(reps);
+                        newReps.add(g);
+                    }
+                    else {
+                        newReps = reps;
+                    }
+                }
+
+                if (newReps == reps || level.slots.compareAndSet(gamma, reps, newReps)) {
+                    if (reps != null) {
+                        for (GroupElement rep : sample(reps, maxBranching)) {
+                            if (ThreadLocalRandom.current().nextBoolean())
+                                siftExtended(levels, index + 1, multiply(g, rep.inverse()), nextBranching);
+                            else
+                                siftExtended(levels, index + 1, multiply(rep, g.inverse()), nextBranching);
+                        }
+                    }
+                    return;
+                }
+                //another worker changed the slot, try again
+            }
+        }
+    }
+
+    private GroupElement multiply(GroupElement a, GroupElement b) {
+        if (rewritingSystem == null)
+            return a.multiply(b);
+        return a.multiply(b, rewritingSystem);
+    }
+
+    private static List<GroupElement> sample(TreeSet<GroupElement> elements, int numberOfElements) {
+        List<GroupElement> list = new ArrayList<>(elements);
+        if (list.size() <= numberOfElements)
+            return list;
+        Collections.shuffle(list, ThreadLocalRandom.current());
+        return list.subList(0, numberOfElements);
+    }
+
+    /**
+     * The image of a permutation is computed lazily. It is computed before the element is shared with other threads.
+     */
+    private GroupElement publish(GroupElement element) {
+        element.getPermutation().getSetImage();
+        return element;
+    }
+
+    /*****************************
+     **** inner classes  *********
+     *****************************/
+
+    private static class Level<T> {
+        private final byte basePoint;
+        private final AtomicReferenceArray<T> slots;
+
+        private Level(byte basePoint, int degree) {
+            this.basePoint = basePoint;
+            this.slots = new AtomicReferenceArray<>(degree);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.numbercruncher.rubikscube.math;
 
 import com.numbercruncher.rubikscube.logger.Logger;
 import com.numbercruncher.rubikscube.utils.IOUtils;
+import com.numbercruncher.rubikscube.xml.ChainXMLWriter;
 import com.numbercruncher.rubikscube.xml.ErrorHandler;
 import com.numbercruncher.rubikscube.xml.ExtendedMinkwitzParser;
 import com.numbercruncher.rubikscube.xml.MinkwitzParser;
@@ -14,6 +15,7 @@ import java.io.*;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.numbercruncher.rubikscube.utils.StringUtils.*;
@@ -158,12 +160,12 @@ public class ExtendedMinkwitzChain {
             this.cosetRepresentativesMap.put(point, cosetRepresentatives);
         }else{
             GroupElement rep = cosetRepresentatives.first();
-            if (rep.getWord().length()>permutation.getWord().length()) {
+            if (rep.getWordLength()>permutation.getWordLength()) {
                 //System.out.println(rep.getWord()+"->"+permutation.getWord());
                 cosetRepresentatives.clear();
                 cosetRepresentatives.add(permutation);
             }
-            else if (rep.getWord().length()==permutation.getWord().length()) {
+            else if (rep.getWordLength()==permutation.getWordLength()) {
                 cosetRepresentatives.add(permutation);
                 StringBuilder out= new StringBuilder();
                 for (int i = 0; i < depth; i++) {
@@ -203,46 +205,67 @@ public class ExtendedMinkwitzChain {
         this.save("");
     }
 
+    /**
+     * Saves the chain in the binary chain format into the resource directory.
+     * @see #exportXML(String)
+     *
+     * @param params suffix of the file name
+     */
     public void save(String params){
         URL dirURL = IOUtils.getResourcePath("extended_minkwitz");
-        String fileName = dirURL.getFile()+"/"+this.name+params+".xml";
-        StringBuilder output = new StringBuilder();
-
-        output.append(XML_HEADER);
-        output.append(generateXMLString(this));
-
-        File file = new File(fileName);
-        if (!file.exists()) {
-            try {
-                file.createNewFile();
-            } catch (IOException e) {
-                e.printStackTrace();
-                Logger.logging(Logger.Level.warning,"Could not create file "+fileName,this);
-                return;
-            }
-        }
-
-        PrintWriter writer=null;
+        String fileName = dirURL.getFile()+"/"+this.name+params+".bin";
         try {
-            writer = new PrintWriter(fileName, StandardCharsets.UTF_8);
-        } catch (FileNotFoundException | UnsupportedEncodingException e) {
-            e.printStackTrace();
-            Logger.logging(Logger.Level.warning,"Could not create file "+fileName+"\n"+e.getMessage(),this);
+            this.save(new File(fileName),true);
+            Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            Logger.logging(Logger.Level.warning,"Could not save "+fileName+"\n"+e.getMessage(),this);
         }
+    }
 
-        if (writer!=null) {
-            writer.println(output);
-            writer.close();
-            Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
+    /**
+     * Writes the chain into a binary file, the words are packed into 4 bits per letter.
+     *
+     * @param file the target file
+     * @param withImages the permutations are stored as well. Otherwise, they have to be computed from the words, when the chain is loaded.
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file, boolean withImages) throws IOException {
+        List<ChainFile.Level> levels = new ArrayList<>();
+        for (ExtendedMinkwitzChain chain = this; chain != null; chain = chain.getStabilizerChain()) {
+            Map<Byte, List<GroupElement>> representatives = new HashMap<>();
+            for (Byte point : chain.getOrbit()) {
+                TreeSet<GroupElement> reps = chain.getCosetRepresentatives(point);
+                representatives.put(point, reps == null ? null : new ArrayList<>(reps));
+            }
+            levels.add(new ChainFile.Level(chain.getOrbit(), representatives));
         }
+        ChainFile.write(file, ChainFile.EXTENDED, levels, withImages);
+    }
 
+    public void exportXML(){
+        this.exportXML("");
+    }
 
+    /**
+     * Exports the chain as XML into the resource directory.
+     *
+     * @param params suffix of the file name
+     */
+    public void exportXML(String params){
+        URL dirURL = IOUtils.getResourcePath("extended_minkwitz");
+        String fileName = dirURL.getFile()+"/"+this.name+params+".xml";
+
+        try (ChainXMLWriter writer = new ChainXMLWriter(new File(fileName))) {
+            writeXML(writer, this, 1);
+        } catch (IOException e) {
+            Logger.logging(Logger.Level.warning,"Could not save "+fileName+"\n"+e.getMessage(),this);
+            return;
+        }
+        Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
     }
 
     public void applyRules(TreeMap<String, String> rules) {
-        applyRulesRecursively(this.stabilizerChain,rules);
+        applyRulesRecursively(this.stabilizerChain,new RewritingSystem(rules));
     }
 
 
@@ -276,7 +299,7 @@ public class ExtendedMinkwitzChain {
         for (TreeSet<GroupElement> list : minkwitzChain.getCosetRepresentativesMap().values()) {
             if (list != null && !list.isEmpty()) {
 
-                letters += list.first().getWord().length();
+                letters += list.first().getWordLength();
                 words ++;
             }
         }
@@ -291,39 +314,31 @@ public class ExtendedMinkwitzChain {
         return new int[]{words, letters};
     }
 
-    private String generateXMLString(ExtendedMinkwitzChain minkwitzChain) {
-        return this.generateXMLString(minkwitzChain,1);
-    }
-
-    private String generateXMLString(ExtendedMinkwitzChain minkwitzChain, int depth) {
-        StringBuilder output = new StringBuilder();
-        output.append(tabs(depth-1)).append(startTag(Tag.stabilizer.name()));
-        output.append(tabs(depth)).append(startTag(Tag.orbit.name()));
-        output.append(tabs(depth+1)).append("[").append(minkwitzChain.getOrbit().stream().map(Object::toString).collect(Collectors.joining(","))).append("]\n");
-        output.append(tabs(depth)).append(endTag(Tag.orbit.name()));
-        output.append(tabs(depth)).append(startTag(Tag.representatives.name()));
+    private void writeXML(ChainXMLWriter writer, ExtendedMinkwitzChain minkwitzChain, int depth) throws IOException {
+        writer.startTag(depth-1, Tag.stabilizer.name());
+        writer.startTag(depth, Tag.orbit.name());
+        writer.text(depth+1, "["+minkwitzChain.getOrbit().stream().map(Object::toString).collect(Collectors.joining(","))+"]");
+        writer.endTag(depth);
+        writer.startTag(depth, Tag.representatives.name());
         for (Map.Entry<Byte, TreeSet<GroupElement>> entry : minkwitzChain.getCosetRepresentativesMap().entrySet()) {
-            output.append(tabs(depth+1)).append(startTag(Tag.representative.name()," of='"+entry.getKey()+"'"));
+            writer.startTag(depth+1, Tag.representative.name(), "of", entry.getKey().toString());
             if (entry.getValue() != null)
                 for (GroupElement groupElement : entry.getValue()) {
-                    output.append(tabs(depth+2)).append(startTag(Tag.permutation.name()));
-                    if (entry.getValue() != null)
-                        output.append(tabs(depth+3)).append(groupElement.getPermutation().toString()).append("\n");
-                    output.append(tabs(depth+2)).append(endTag(Tag.permutation.name()));
-                    output.append(tabs(depth+2)).append(startTag(Tag.word.name()));
-                    if (entry.getValue() != null)
-                        output.append(tabs(depth+3)).append(groupElement.getWord()).append("\n");
-                    output.append(tabs(depth+2)).append(endTag(Tag.word.name()));
+                    writer.startTag(depth+2, Tag.permutation.name());
+                    writer.text(depth+3, groupElement.getPermutation().toString());
+                    writer.endTag(depth+2);
+                    writer.startTag(depth+2, Tag.word.name());
+                    writer.text(depth+3, groupElement.getWord());
+                    writer.endTag(depth+2);
                 }
-            output.append(tabs(depth+1)).append(endTag(Tag.representative.name()));
+            writer.endTag(depth+1);
         }
-        output.append(tabs(depth)).append(endTag(Tag.representatives.name()));
-        if (!minkwitzChain.isLast()) output.append(generateXMLString(minkwitzChain.getStabilizerChain(),depth+1));
-        output.append(tabs(depth-1)).append(endTag(Tag.stabilizer.name()));
-        return output.toString();
+        writer.endTag(depth);
+        if (!minkwitzChain.isLast()) writeXML(writer, minkwitzChain.getStabilizerChain(), depth+1);
+        writer.endTag(depth-1);
     }
 
-    private void applyRulesRecursively(ExtendedMinkwitzChain minkwitzChain, TreeMap<String, String> rules) {
+    private void applyRulesRecursively(ExtendedMinkwitzChain minkwitzChain, RewritingSystem rules) {
         for (TreeSet<GroupElement> elements : minkwitzChain.getCosetRepresentativesMap().values())
             for (GroupElement element : elements) {
                 element.apply(rules);
@@ -354,13 +369,34 @@ public class ExtendedMinkwitzChain {
     }
 
     public static ExtendedMinkwitzChain load(String name,int preTraining,  int numberOfElements, int maxBranching, boolean verbose){
+        return load(name,preTraining,numberOfElements,maxBranching,verbose,null);
+    }
+
+    /**
+     * Loads the chain from the resource directory. The binary file is preferred, the XML file is the fall back.
+     *
+     * @param evaluator computes the permutation of a word. If it is given, only the words are read from the file and
+     *                  the permutations are computed in parallel after parsing.
+     */
+    public static ExtendedMinkwitzChain load(String name, int preTraining, int numberOfElements, int maxBranching, boolean verbose, Function<String,Permutation> evaluator){
 
         URL dirURL = IOUtils.getResourcePath("extended_minkwitz");
         String fileName;
         if (maxBranching==1)
-            fileName = dirURL.getFile()+"/"+name+"_"+preTraining+"_"+numberOfElements+".xml";
+            fileName = dirURL.getFile()+"/"+name+"_"+preTraining+"_"+numberOfElements;
         else
-            fileName = dirURL.getFile()+"/"+name+"_"+preTraining+"_"+numberOfElements+"_"+maxBranching+".xml";
+            fileName = dirURL.getFile()+"/"+name+"_"+preTraining+"_"+numberOfElements+"_"+maxBranching;
+
+        //the binary file is preferred
+        File binaryFile = new File(fileName+".bin");
+        if (binaryFile.exists()) {
+            try {
+                return load(binaryFile, name, evaluator==null ? null : word -> new GroupElement(evaluator.apply(word), word));
+            } catch (IOException e) {
+                Logger.logging(Logger.Level.warning, e.getMessage() + "\n");
+            }
+        }
+        fileName += ".xml";
         int i=0;
         i++;
         try{
@@ -370,7 +406,7 @@ public class ExtendedMinkwitzChain {
 
             XMLReader xmlReader = saxParser.getXMLReader();
 
-            ExtendedMinkwitzParser extendedMinkwitzParser = new ExtendedMinkwitzParser(name,verbose);
+            ExtendedMinkwitzParser extendedMinkwitzParser = new ExtendedMinkwitzParser(name,verbose,evaluator);
             xmlReader.setContentHandler(extendedMinkwitzParser);
             xmlReader.setErrorHandler(new ErrorHandler(System.err));
             xmlReader.parse(fileName);
@@ -386,5 +422,31 @@ public class ExtendedMinkwitzChain {
 
     }
 
+    public static ExtendedMinkwitzChain load(File file, String name) throws IOException {
+        return load(file, name, null);
+    }
 
+    /**
+     * Reads a chain that was written with {@link #save(File, boolean)}.
+     *
+     * @param file the binary chain file
+     * @param name the name of the chain
+     * @param evaluator computes the group element of a word, it is only needed for files without permutations
+     * @return the chain
+     * @throws IOException if the file cannot be read, has the wrong format or a wrong checksum
+     */
+    public static ExtendedMinkwitzChain load(File file, String name, Function<String, GroupElement> evaluator) throws IOException {
+        List<ChainFile.Level> levels = ChainFile.read(file, ChainFile.EXTENDED, evaluator);
+        ExtendedMinkwitzChain chain = null;
+        for (int l = levels.size() - 1; l >= 0; l--) {
+            ChainFile.Level level = levels.get(l);
+            Map<Byte, TreeSet<GroupElement>> representatives = new HashMap<>();
+            for (Byte point : level.orbit) {
+                List<GroupElement> elements = level.representatives.get(point);
+                representatives.put(point, elements == null ? null : new TreeSet<>(elements));
+            }
+            chain = new ExtendedMinkwitzChain(level.orbit, null, representatives, chain, l == 0 ? name : "");
+        }
+        return chain;
+    }
 }
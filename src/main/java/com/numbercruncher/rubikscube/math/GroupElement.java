@@ -23,9 +23,11 @@ public class GroupElement implements Comparable<GroupElement> {
     /*****************************
      **** Attributes **************
      *****************************/
-    private final Permutation permutation;
-    private String word;
-    private List<String> factors = new ArrayList<>();
+    private volatile Permutation permutation;
+    private Function<String,Permutation> evaluator;
+    private PackedWord word;
+    //allocated, when the first factor is added
+    private List<String> factors;
 
 
     /*****************************
@@ -33,6 +35,10 @@ public class GroupElement implements Comparable<GroupElement> {
      *****************************/
 
     public GroupElement(Permutation permutation, String word){
+        this(permutation,PackedWord.of(word));
+    }
+
+    public GroupElement(Permutation permutation, PackedWord word){
         this.permutation=permutation;
 //        if (this.permutation.isIdentity())
 //            this.word="";
@@ -40,20 +46,56 @@ public class GroupElement implements Comparable<GroupElement> {
             this.word=word;
     }
 
+    /**
+     * Group element that only stores the word. The permutation is computed from the word on first access.
+     *
+     * @param word the word of the element
+     * @param evaluator computes the permutation of a word
+     */
+    public GroupElement(String word, Function<String,Permutation> evaluator){
+        this.word=PackedWord.of(word);
+        this.evaluator=evaluator;
+    }
+
     /*****************************
      **** Getter    **************
      *****************************/
 
     public Permutation getPermutation() {
-        return permutation;
+        Permutation result = permutation;
+        if (result==null) {
+            synchronized (this) {
+                if (permutation==null && evaluator!=null) {
+                    permutation = evaluator.apply(word.toString());
+                    evaluator = null;
+                }
+                result = permutation;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true, if the permutation of the element is known
+     */
+    public boolean isEvaluated(){
+        return permutation!=null;
     }
 
     public String getWord() {
+        return word.toString();
+    }
+
+    public PackedWord getPackedWord() {
         return word;
     }
 
+    public int getWordLength() {
+        return word.length();
+    }
+
     public List<String> getFactors(){
-        return factors;
+        return factors==null ? List.of() : factors;
     }
 
     /*****************************
@@ -61,6 +103,8 @@ public class GroupElement implements Comparable<GroupElement> {
      *****************************/
 
     public void addFactor(String factor){
+        if (this.factors==null)
+            this.factors=new ArrayList<>();
         this.factors.add(factor);
     }
 
@@ -68,25 +112,47 @@ public class GroupElement implements Comparable<GroupElement> {
         this.factors=factors;
     }
 
+    /**
+     * Replaces the word by a word of the same element
+     */
+    public void setWord(String word){
+        this.word=encode(word);
+    }
+
     /*****************************
      **** public methods *********
      *****************************/
 
     public GroupElement multiply(GroupElement factor){
-        return new GroupElement(permutation.multiply(factor.permutation),word+factor.word);
+        return new GroupElement(getPermutation().multiply(factor.getPermutation()),word.concat(factor.word));
     }
 
     public GroupElement multiply(GroupElement factor,TreeMap<String,String> simplifyingRules){
-        GroupElement product =  new GroupElement(permutation.multiply(factor.permutation),word+factor.word);
+        GroupElement product =  new GroupElement(getPermutation().multiply(factor.getPermutation()),word.concat(factor.word));
         product.apply(simplifyingRules);
         return product;
     }
 
+    /**
+     * The word of the product is reduced while the letters of the factor are appended,
+     * so only the end of the word is rewritten, when the word of this element is irreducible already.
+     *
+     * The automaton still reads the whole word of this element, since the element doesn't keep the states of the automaton.
+     * Therefore a multiplication costs O(|word|). Words that are built letter by letter, should use a {@link ReducedWord} directly,
+     * which appends a letter in amortised constant time, see {@link PermutationGroup#randomElement(int)}.
+     */
+    public GroupElement multiply(GroupElement factor,RewritingSystem rewritingSystem){
+        String productWord = new ReducedWord(rewritingSystem,word).append(factor.word).toString();
+        PackedWord.Alphabet alphabet = word.length()==0 ? factor.word.getAlphabet() : word.getAlphabet();
+        return new GroupElement(getPermutation().multiply(factor.getPermutation()),PackedWord.of(productWord,alphabet));
+    }
+
     public GroupElement inverse(){
-        return new GroupElement(permutation.inverse(), StringUtils.toggleCase(new StringBuilder(word).reverse().toString()));
+        return new GroupElement(getPermutation().inverse(), word.inverse());
     }
 
     public void wordSimplify(List<Function<String,String>> rules){
+        String word = this.word.toString();
         int oldLength;
         int newLength;
         do {
@@ -96,9 +162,35 @@ public class GroupElement implements Comparable<GroupElement> {
             }
             newLength = word.length();
         } while (newLength < oldLength);
+        this.word = encode(word);
+    }
+
+    /**
+     * The reducer is applied first, the rules only as long as they shorten the word
+     */
+    public void wordSimplify(WordReducer reducer, List<Function<String,String>> rules){
+        String word = reducer.reduce(this.word.toString());
+        if (!rules.isEmpty()) {
+            int oldLength;
+            do {
+                oldLength = word.length();
+                for (Function<String, String> rule : rules) {
+                    word = rule.apply(word);
+                }
+                word = reducer.reduce(word);
+            } while (word.length() < oldLength);
+        }
+        this.word = encode(word);
     }
 
 
+    /**
+     * Simplifies the word with the compiled rules
+     */
+    public void apply(RewritingSystem rewritingSystem){
+        this.word = encode(rewritingSystem.rewrite(this.word.toString()));
+    }
+
     public void apply(TreeMap<String,String> rules){
         this.apply(rules,false,1);
     }
@@ -112,18 +204,20 @@ public class GroupElement implements Comparable<GroupElement> {
         final Predicate<String> selector = s->s.length()<= finalWord.length();
         TreeMap<String, String> subRules = rules.entrySet().stream().filter(v->selector.test(v.getKey())).collect(Collectors.toMap(Map.Entry::getKey,Map.Entry::getValue,(v1, v2)->v1,TreeMap::new));
 
+        String word = finalWord;
         int oldLength = word.length();
         for (Map.Entry<String,String> entry : subRules.entrySet()) {
             String key = entry.getKey();
             String value = entry.getValue();
-            if (verbose && this.word.contains(key)) {
-                System.out.print(this.word+"->");
-                this.word = this.word.replace(key, value);
-                System.out.println(this.word);
+            if (verbose && word.contains(key)) {
+                System.out.print(word+"->");
+                word = word.replace(key, value);
+                System.out.println(word);
 
             }
-            else this.word = this.word.replace(key, value);
+            else word = word.replace(key, value);
         }
+        this.word = encode(word);
         int newLength = word.length();
 
         if (newLength < oldLength) {
@@ -138,6 +232,13 @@ public class GroupElement implements Comparable<GroupElement> {
      **** private methods  *******
      *****************************/
 
+    /**
+     * A new word of this element keeps the alphabet of the current word
+     */
+    private PackedWord encode(String word){
+        return PackedWord.of(word,this.word.getAlphabet());
+    }
+
     /*****************************
      **** Overrides     **********
      *****************************/
@@ -151,8 +252,8 @@ public class GroupElement implements Comparable<GroupElement> {
      */
     public String toString(){
         if (word.length()>5)
-            return word.charAt(0)+"..."+word.substring(word.length()-1);
-        return word;
+            return word.charAt(0)+"..."+word.charAt(word.length()-1);
+        return word.toString();
     }
 
     /**
@@ -161,7 +262,7 @@ public class GroupElement implements Comparable<GroupElement> {
      * @return the full word as a string.
      */
     public String toFullWordString(){
-        return word;
+        return word.toString();
     }
 
     /**
@@ -171,17 +272,17 @@ public class GroupElement implements Comparable<GroupElement> {
      * @return a string combining the word and permutation in the format "word->permutation".
      */
     public String toFullString(){
-        return word+"->"+permutation.toString();
+        return word+"->"+getPermutation().toString();
     }
 
     public String toTabString(int tabs){
         int wordtabs = word.length()/4;
-        return word+StringUtils.tabs(tabs-wordtabs)+"->"+permutation.toString();
+        return word+StringUtils.tabs(tabs-wordtabs)+"->"+getPermutation().toString();
     }
 
     @Override
     public int compareTo(GroupElement o) {
-         return this.permutation.compareTo(o.permutation);
+         return this.getPermutation().compareTo(o.getPermutation());
     }
 
 
@@ -34,7 +34,7 @@ public class GroupIterator implements Iterator<GroupElement> {
     private String groupName;
     private Queue<String> shortestWords;
     private boolean loaded = false;
-    private TreeMap<Character,GroupElement> generatorMap;
+    private final WordEvaluator evaluator;
     private GroupElement one;
     private BufferedOutputStream out;
 
@@ -60,11 +60,8 @@ public class GroupIterator implements Iterator<GroupElement> {
         elements.add(this.base);
         queue.offer(one);
 
-        //create letter generator map
-        generatorMap = new TreeMap<>();
-        for (GroupElement generator : generators) {
-            generatorMap.put(generator.getWord().charAt(0),generator);
-        }
+        //the shortest words are in breadth-first order, the parent of a word has been evaluated before
+        evaluator = new WordEvaluator(generators, 1 << 16);
 
 
     }
@@ -81,6 +78,16 @@ public class GroupIterator implements Iterator<GroupElement> {
 
     }
 
+    /**
+     * Iterator over shortest words that have been read from the file already, see {@link #readShortestWords(String, int)}
+     */
+    public GroupIterator(PermutationGroup group, int maxElements, List<String> shortestWords){
+        this(group.getGroupElementGenerators(),group.getBase(),maxElements);
+        this.groupName=group.getName();
+        this.shortestWords = new ArrayDeque<>(shortestWords);
+        this.loaded = true;
+    }
+
 
     /*****************************
      **** public methods *********
@@ -95,27 +102,12 @@ public class GroupIterator implements Iterator<GroupElement> {
      *****************************/
 
     private boolean load_from_file(int maxElements) {
-        URL dirURL = IOUtils.getResourcePath("shortest_words");
-        String fileName = dirURL.getFile()+"/"+this.groupName+"_"+maxElements+".txt";
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName)))
-        {
-            String line;
-            this.shortestWords = new ArrayDeque<>();
-
-            while ((line = reader.readLine()) != null) {
-                if (!line.isEmpty()) {
-                    this.shortestWords.add(line);
-                }
-            }
-            this.loaded = true;
-            return true;
-        }
-        catch(IOException ex){
-            ex.getStackTrace();
-            Logger.logging(Logger.Level.warning,ex.getMessage()+"\n");
-        }
-        return false;
+        List<String> words = readShortestWords(this.groupName, maxElements);
+        if (words==null)
+            return false;
+        this.shortestWords = new ArrayDeque<>(words);
+        this.loaded = true;
+        return true;
     }
 
 
@@ -198,16 +190,9 @@ public class GroupIterator implements Iterator<GroupElement> {
         }
         else{
             String word = shortestWords.poll();
-            GroupElement element = one;
             assert word != null;
-            for (Character c : word.toCharArray()) {
-                GroupElement generator = generatorMap.get(c);
-                if (generator != null) {
-                    element = element.multiply(generator);
-                }
-            }
-
-            return element;
+            //letters that are no generators, like the blank of the identity, are skipped
+            return evaluator.toElementSkippingUnknownLetters(word);
         }
     }
 
@@ -215,4 +200,34 @@ public class GroupIterator implements Iterator<GroupElement> {
     /*****************************
      **** static methods **********
      *****************************/
+
+    /**
+     * Reads the shortest words of a group from the resource directory
+     *
+     * @param groupName
+     * @param maxElements
+     * @return the words or null, if the file cannot be read
+     */
+    public static List<String> readShortestWords(String groupName, int maxElements){
+        URL dirURL = IOUtils.getResourcePath("shortest_words");
+        String fileName = dirURL.getFile()+"/"+groupName+"_"+maxElements+".txt";
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName)))
+        {
+            String line;
+            List<String> words = new ArrayList<>();
+
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    words.add(line);
+                }
+            }
+            return words;
+        }
+        catch(IOException ex){
+            ex.getStackTrace();
+            Logger.logging(Logger.Level.warning,ex.getMessage()+"\n");
+        }
+        return null;
+    }
 }
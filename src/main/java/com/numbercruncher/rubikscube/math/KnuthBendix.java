@@ -0,0 +1,234 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The class KnuthBendix completes a set of simplification rules to a confluent rewriting system with respect to the
+ * shortlex order, i.e. shorter words are smaller and words of equal length are compared lexicographically.
+ *
+ * Every rule is an equation of two words that represent the same group element. The equations are oriented, such that the
+ * larger word is replaced by the smaller one. For each overlap of two left-hand sides the two possible rewrites of
+ * the overlap are reduced, and if they differ, a new equation is found. Rules, whose left-hand side contains the left-hand
+ * side of a new rule, are removed and treated as equations again. The right-hand sides are kept reduced.
+ *
+ * The completion is bounded by the length of the left-hand sides and the number of rules. If no bound is reached,
+ * the result is confluent and every word has a unique normal form, which is found by a single rewriting pass in any order.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class KnuthBendix {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private final int maxRuleLength;
+    private final int maxNumberOfRules;
+
+    private final Map<String, String> rules = new HashMap<>();
+    //the lengths of the left-hand sides with their frequency
+    private final TreeMap<Integer, Integer> lengths = new TreeMap<>();
+    //the shortest equations are processed first
+    private final PriorityQueue<String[]> equations = new PriorityQueue<>(
+            (e1, e2) -> Integer.compare(e1[0].length() + e1[1].length(), e2[0].length() + e2[1].length()));
+    private boolean confluent;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    /**
+     * @param maxRuleLength equations with a longer left-hand side are dropped
+     * @param maxNumberOfRules the completion stops, when the number of rules exceeds this number
+     */
+    public KnuthBendix(int maxRuleLength, int maxNumberOfRules) {
+        this.maxRuleLength = maxRuleLength;
+        this.maxNumberOfRules = maxNumberOfRules;
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    /**
+     * @return true, if the last completion was finished without reaching one of the bounds
+     */
+    public boolean isConfluent() {
+        return confluent;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * @param equations pairs of words, that represent the same group element
+     * @return the reduced and, if no bound is reached, confluent rules sorted by the {@link SimplifyingRuleComparator}
+     */
+    public TreeMap<String, String> complete(Map<String, String> equations) {
+        this.rules.clear();
+        this.lengths.clear();
+        this.equations.clear();
+        this.confluent = true;
+        for (Map.Entry<String, String> equation : equations.entrySet())
+            this.equations.add(new String[]{equation.getKey(), equation.getValue() == null ? "" : equation.getValue()});
+
+        while (!this.equations.isEmpty()) {
+            String[] equation = this.equations.poll();
+            String u = reduce(equation[0]);
+            String v = reduce(equation[1]);
+            if (u.equals(v))
+                continue;
+            String lhs = shortlex(u, v) > 0 ? u : v;
+            String rhs = lhs == u ? v : u;
+            if (lhs.length() > maxRuleLength) {
+                confluent = false;
+                continue;
+            }
+            addRule(lhs, rhs);
+            if (rules.size() > maxNumberOfRules) {
+                confluent = false;
+                break;
+            }
+        }
+
+        TreeMap<String, String> result = new TreeMap<>(new SimplifyingRuleComparator());
+        result.putAll(rules);
+        return result;
+    }
+
+    /**
+     * Rewrites the word with the current rules, until no left-hand side is contained
+     *
+     * @param word
+     * @return the normal form of the word with respect to the current rules
+     */
+    public String reduce(String word) {
+        if (rules.isEmpty())
+            return word;
+        StringBuilder builder = new StringBuilder(word);
+        int position = 0;
+        //all subwords that end before position+1 are irreducible
+        while (position < builder.length()) {
+            boolean replaced = false;
+            for (int length : lengths.keySet()) {
+                int start = position + 1 - length;
+                if (start < 0)
+                    break;
+                String replacement = rules.get(builder.substring(start, position + 1));
+                if (replacement != null) {
+                    builder.replace(start, position + 1, replacement);
+                    position = start;
+                    replaced = true;
+                    break;
+                }
+            }
+            if (!replaced)
+                position++;
+        }
+        return builder.toString();
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private void addRule(String lhs, String rhs) {
+        //rules with a reducible left-hand side become equations again
+        List<String> reducible = new ArrayList<>();
+        for (String key : rules.keySet())
+            if (key.contains(lhs))
+                reducible.add(key);
+        for (String key : reducible) {
+            equations.add(new String[]{key, removeRule(key)});
+        }
+
+        putRule(lhs, rhs);
+
+        //keep the right-hand sides reduced
+        for (Map.Entry<String, String> rule : rules.entrySet())
+            if (rule.getValue().contains(lhs))
+                rule.setValue(reduce(rule.getValue()));
+
+        //critical pairs of the new rule with all rules including itself
+        for (String key : new TreeSet<>(rules.keySet())) {
+            addCriticalPairs(lhs, key);
+            if (!key.equals(lhs))
+                addCriticalPairs(key, lhs);
+        }
+    }
+
+    /**
+     * Overlaps of a suffix of the first left-hand side with a prefix of the second one
+     */
+    private void addCriticalPairs(String first, String second) {
+        String firstRhs = rules.get(first);
+        String secondRhs = rules.get(second);
+        for (int overlap = 1; overlap < Math.min(first.length(), second.length()); overlap++) {
+            if (first.regionMatches(first.length() - overlap, second, 0, overlap)) {
+                String u = firstRhs + second.substring(overlap);
+                String v = first.substring(0, first.length() - overlap) + secondRhs;
+                if (!u.equals(v))
+                    equations.add(new String[]{u, v});
+            }
+        }
+    }
+
+    private void putRule(String lhs, String rhs) {
+        rules.put(lhs, rhs);
+        lengths.merge(lhs.length(), 1, Integer::sum);
+    }
+
+    private String removeRule(String lhs) {
+        String rhs = rules.remove(lhs);
+        if (lengths.merge(lhs.length(), -1, Integer::sum) == 0)
+            lengths.remove(lhs.length());
+        return rhs;
+    }
+
+    /*****************************
+     **** static methods **********
+     *****************************/
+
+    /**
+     * Removes the rules, that are implied by the other rules. A rule is implied, if the other rules rewrite its left-hand side
+     * to a word that is not longer than its right-hand side. The rules are checked from the longest to the shortest one.
+     *
+     * @param rules
+     * @return the remaining rules sorted by the {@link SimplifyingRuleComparator}
+     */
+    public static TreeMap<String, String> minimize(Map<String, String> rules) {
+        TreeMap<String, String> sorted = new TreeMap<>(new SimplifyingRuleComparator());
+        sorted.putAll(rules);
+        KnuthBendix system = new KnuthBendix(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        for (Map.Entry<String, String> rule : sorted.entrySet())
+            system.putRule(rule.getKey(), rule.getValue() == null ? "" : rule.getValue());
+
+        for (Map.Entry<String, String> rule : sorted.entrySet()) {
+            String rhs = system.removeRule(rule.getKey());
+            if (system.reduce(rule.getKey()).length() > rhs.length())
+                system.putRule(rule.getKey(), rhs);
+        }
+
+        TreeMap<String, String> result = new TreeMap<>(new SimplifyingRuleComparator());
+        result.putAll(system.rules);
+        return result;
+    }
+
+    /**
+     * @return a positive number, if the first word is larger in the shortlex order
+     */
+    public static int shortlex(String w1, String w2) {
+        if (w1.length() != w2.length())
+            return w1.length() - w2.length();
+        return w1.compareTo(w2);
+    }
+}
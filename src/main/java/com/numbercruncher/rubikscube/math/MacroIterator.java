@@ -0,0 +1,129 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The class MacroIterator generates training elements for the deep levels of a Minkwitz chain.
+ *
+ * Short words of the group iterator rarely stabilize many points. Commutators [a,b] = a b a^{-1} b^{-1}
+ * and conjugates a b a^{-1} of short words move only a few points and therefore drop into the deep
+ * stabilizer levels. The pairs are enumerated such that the words grow slowly.
+ *
+ * Identities and elements with the same action on the base as an earlier element are skipped.
+ * The words are simplified with the word rules of the group.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class MacroIterator implements Iterator<GroupElement> {
+
+    /*****************************
+     **** Attributes **************
+     *****************************/
+
+    private final List<GroupElement> words;
+    private final PermutationGroup group;
+    private final Base base;
+    private final HashSet<Base> elements;
+    private final Deque<GroupElement> queue;
+    private final int maxElements;
+    private int count = 0;
+    //current pair of words (i,j) with i<j
+    private int i = 0;
+    private int j = 1;
+
+    /*****************************
+     **** Constructor *************
+     *****************************/
+
+    /**
+     * @param group the group
+     * @param numberOfWords the number of short words of the group iterator that are combined
+     * @param maxElements the maximal number of macros, -1 for all combinations
+     */
+    public MacroIterator(PermutationGroup group, int numberOfWords, int maxElements) {
+        this.group = group;
+        this.base = group.getBase();
+        this.maxElements = maxElements;
+        this.elements = new HashSet<>();
+        this.queue = new ArrayDeque<>();
+
+        this.words = new ArrayList<>(numberOfWords);
+        int max = 0;
+        for (GroupIterator it = group.getIterator(numberOfWords); it.hasNext() && max <= numberOfWords; max++) {
+            GroupElement element = it.next();
+            if (!element.getPermutation().isIdentity())
+                this.words.add(element);
+        }
+    }
+
+    public MacroIterator(PermutationGroup group, int numberOfWords) {
+        this(group, numberOfWords, -1);
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    public Stream<GroupElement> toStream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+
+    /*****************************
+     **** private methods *********
+     *****************************/
+
+    /**
+     * the macros of the next pair of words are added to the queue
+     */
+    private void nextPair() {
+        GroupElement a = words.get(i);
+        GroupElement b = words.get(j);
+        GroupElement aInv = a.inverse();
+
+        //commutator [a,b]
+        offer(a.multiply(b).multiply(aInv).multiply(b.inverse()));
+        //conjugates
+        offer(a.multiply(b).multiply(aInv));
+        offer(b.multiply(a).multiply(b.inverse()));
+
+        //enumerate the pairs along the growing index j
+        i++;
+        if (i == j) {
+            i = 0;
+            j++;
+        }
+    }
+
+    private void offer(GroupElement macro) {
+        if (macro.getPermutation().isIdentity())
+            return;
+        if (elements.add(base.action(macro.getPermutation()))) {
+            group.wordSimplify(macro);
+            queue.offer(macro);
+        }
+    }
+
+    /*****************************
+     **** Overrides     **********
+     *****************************/
+
+    @Override
+    public boolean hasNext() {
+        if (maxElements != -1 && count >= maxElements)
+            return false;
+        while (queue.isEmpty() && j < words.size())
+            nextPair();
+        return !queue.isEmpty();
+    }
+
+    @Override
+    public GroupElement next() {
+        if (!hasNext()) throw new IllegalStateException("No more elements");
+        count++;
+        return queue.poll();
+    }
+}
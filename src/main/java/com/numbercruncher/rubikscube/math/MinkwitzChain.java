@@ -2,6 +2,7 @@ package com.numbercruncher.rubikscube.math;
 
 import com.numbercruncher.rubikscube.logger.Logger;
 import com.numbercruncher.rubikscube.utils.IOUtils;
+import com.numbercruncher.rubikscube.xml.ChainXMLWriter;
 import com.numbercruncher.rubikscube.xml.ErrorHandler;
 import com.numbercruncher.rubikscube.xml.MinkwitzParser;
 import org.xml.sax.XMLReader;
@@ -12,6 +13,7 @@ import java.io.*;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.numbercruncher.rubikscube.utils.StringUtils.*;
@@ -108,6 +110,10 @@ public class MinkwitzChain {
         return stabilizerChain;
     }
 
+    public String getName() {
+        return name;
+    }
+
     public Map<Byte,GroupElement> getCosetRepresentatives(){
         return cosetRepresentative;
     }
@@ -170,46 +176,67 @@ public class MinkwitzChain {
         this.save("");
     }
 
+    /**
+     * Saves the chain in the binary chain format into the resource directory.
+     * @see #exportXML(String)
+     *
+     * @param params suffix of the file name
+     */
     public void save(String params){
         URL dirURL = IOUtils.getResourcePath("minkwitz");
-        String fileName = dirURL.getFile()+"/"+this.name+params+".xml";
-        StringBuilder output = new StringBuilder();
-
-        output.append(XML_HEADER);
-        output.append(generateXMLString(this));
-
-        File file = new File(fileName);
-        if (!file.exists()) {
-            try {
-                file.createNewFile();
-            } catch (IOException e) {
-                e.printStackTrace();
-                Logger.logging(Logger.Level.warning,"Could not create file "+fileName,this);
-                return;
-            }
-        }
-
-        PrintWriter writer=null;
+        String fileName = dirURL.getFile()+"/"+this.name+params+".bin";
         try {
-            writer = new PrintWriter(fileName, StandardCharsets.UTF_8);
-        } catch (FileNotFoundException | UnsupportedEncodingException e) {
-            e.printStackTrace();
-            Logger.logging(Logger.Level.warning,"Could not create file "+fileName+"\n"+e.getMessage(),this);
+            this.save(new File(fileName),true);
+            Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            Logger.logging(Logger.Level.warning,"Could not save "+fileName+"\n"+e.getMessage(),this);
         }
+    }
 
-        if (writer!=null) {
-            writer.println(output);
-            writer.close();
-            Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
+    /**
+     * Writes the chain into a binary file, the words are packed into 4 bits per letter.
+     *
+     * @param file the target file
+     * @param withImages the permutations are stored as well. Otherwise, they have to be computed from the words, when the chain is loaded.
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file, boolean withImages) throws IOException {
+        List<ChainFile.Level> levels = new ArrayList<>();
+        for (MinkwitzChain chain = this; chain != null; chain = chain.getStabilizerChain()) {
+            Map<Byte, List<GroupElement>> representatives = new HashMap<>();
+            for (Byte point : chain.getOrbit()) {
+                GroupElement rep = chain.getCosetRepresentative(point);
+                representatives.put(point, rep == null ? null : List.of(rep));
+            }
+            levels.add(new ChainFile.Level(chain.getOrbit(), representatives));
         }
+        ChainFile.write(file, ChainFile.MINKWITZ, levels, withImages);
+    }
 
+    public void exportXML(){
+        this.exportXML("");
+    }
 
+    /**
+     * Exports the chain as XML into the resource directory.
+     *
+     * @param params suffix of the file name
+     */
+    public void exportXML(String params){
+        URL dirURL = IOUtils.getResourcePath("minkwitz");
+        String fileName = dirURL.getFile()+"/"+this.name+params+".xml";
+
+        try (ChainXMLWriter writer = new ChainXMLWriter(new File(fileName))) {
+            writeXML(writer, this, 1);
+        } catch (IOException e) {
+            Logger.logging(Logger.Level.warning,"Could not save "+fileName+"\n"+e.getMessage(),this);
+            return;
+        }
+        Logger.logging(Logger.Level.info,"Saved "+this.name+" to "+fileName,this);
     }
 
     public void applyRules(TreeMap<String, String> rules) {
-        applyRulesRecursively(this.stabilizerChain,rules);
+        applyRulesRecursively(this.stabilizerChain,new RewritingSystem(rules));
     }
 
 
@@ -243,7 +270,7 @@ public class MinkwitzChain {
         for (GroupElement value : minkwitzChain.getCosetRepresentatives().values()) {
             if (value != null) {
 
-                letters += value.getWord().length();
+                letters += value.getWordLength();
                 words ++;
             }
         }
@@ -258,36 +285,30 @@ public class MinkwitzChain {
         return new int[]{words, letters};
     }
 
-    private String generateXMLString(MinkwitzChain minkwitzChain) {
-        return this.generateXMLString(minkwitzChain,1);
-    }
-
-    private String generateXMLString(MinkwitzChain minkwitzChain,int depth) {
-        StringBuilder output = new StringBuilder();
-        output.append(tabs(depth-1)).append(startTag(Tag.stabilizer.name()));
-        output.append(tabs(depth)).append(startTag(Tag.orbit.name()));
-        output.append(tabs(depth+1)).append("[").append(minkwitzChain.getOrbit().stream().map(Object::toString).collect(Collectors.joining(","))).append("]\n");
-        output.append(tabs(depth)).append(endTag(Tag.orbit.name()));
-        output.append(tabs(depth)).append(startTag(Tag.representatives.name()));
+    private void writeXML(ChainXMLWriter writer, MinkwitzChain minkwitzChain, int depth) throws IOException {
+        writer.startTag(depth-1, Tag.stabilizer.name());
+        writer.startTag(depth, Tag.orbit.name());
+        writer.text(depth+1, "["+minkwitzChain.getOrbit().stream().map(Object::toString).collect(Collectors.joining(","))+"]");
+        writer.endTag(depth);
+        writer.startTag(depth, Tag.representatives.name());
         for (Map.Entry<Byte, GroupElement> entry : minkwitzChain.getCosetRepresentatives().entrySet()) {
-            output.append(tabs(depth+1)).append(startTag(Tag.representative.name()," of='"+entry.getKey()+"'"));
-            output.append(tabs(depth+2)).append(startTag(Tag.permutation.name()));
+            writer.startTag(depth+1, Tag.representative.name(), "of", entry.getKey().toString());
+            writer.startTag(depth+2, Tag.permutation.name());
             if (entry.getValue() != null)
-                output.append(tabs(depth+3)).append(entry.getValue().getPermutation().toString()).append("\n");
-            output.append(tabs(depth+2)).append(endTag(Tag.permutation.name()));
-            output.append(tabs(depth+2)).append(startTag(Tag.word.name()));
+                writer.text(depth+3, entry.getValue().getPermutation().toString());
+            writer.endTag(depth+2);
+            writer.startTag(depth+2, Tag.word.name());
             if (entry.getValue() != null)
-                output.append(tabs(depth+3)).append(entry.getValue().getWord()).append("\n");
-            output.append(tabs(depth+2)).append(endTag(Tag.word.name()));
-            output.append(tabs(depth+1)).append(endTag(Tag.representative.name()));
+                writer.text(depth+3, entry.getValue().getWord());
+            writer.endTag(depth+2);
+            writer.endTag(depth+1);
         }
-        output.append(tabs(depth)).append(endTag(Tag.representatives.name()));
-        if (!minkwitzChain.isLast()) output.append(generateXMLString(minkwitzChain.getStabilizerChain(),depth+1));
-        output.append(tabs(depth-1)).append(endTag(Tag.stabilizer.name()));
-        return output.toString();
+        writer.endTag(depth);
+        if (!minkwitzChain.isLast()) writeXML(writer, minkwitzChain.getStabilizerChain(), depth+1);
+        writer.endTag(depth-1);
     }
 
-    private void applyRulesRecursively(MinkwitzChain minkwitzChain, TreeMap<String, String> rules) {
+    private void applyRulesRecursively(MinkwitzChain minkwitzChain, RewritingSystem rules) {
 
         for (GroupElement element : minkwitzChain.getCosetRepresentatives().values())
             element.apply(rules);
@@ -318,9 +339,31 @@ public class MinkwitzChain {
         return load(name,numberOfElements,false);
     }
 
+    /**
+     * Loads the chain from the resource directory. The binary file is preferred, the XML file is the fall back.
+     */
     public static MinkwitzChain load(String name,int numberOfElements, boolean verbose){
+        return load(name,numberOfElements,verbose,null);
+    }
+
+    /**
+     * Loads the chain from the resource directory. The binary file is preferred, the XML file is the fall back.
+     *
+     * @param evaluator computes the permutation of a word. If it is given, only the words are read from the file and
+     *                  the permutations of the representatives are computed on first access.
+     */
+    public static MinkwitzChain load(String name, int numberOfElements, boolean verbose, Function<String,Permutation> evaluator){
 
         URL dirURL = IOUtils.getResourcePath("minkwitz");
+        File binaryFile = new File(dirURL.getFile()+"/"+name+"_"+numberOfElements+".bin");
+        if (binaryFile.exists()) {
+            try {
+                return load(binaryFile, name, evaluator==null ? null : word -> new GroupElement(word, evaluator));
+            } catch (IOException e) {
+                Logger.logging(Logger.Level.warning, e.getMessage() + "\n");
+            }
+        }
+
         String fileName = dirURL.getFile()+"/"+name+"_"+numberOfElements+".xml";
         try{
             SAXParserFactory spf = SAXParserFactory.newInstance();
@@ -329,7 +372,7 @@ public class MinkwitzChain {
 
             XMLReader xmlReader = saxParser.getXMLReader();
 
-            MinkwitzParser minkwitzParser = new MinkwitzParser(name,verbose);
+            MinkwitzParser minkwitzParser = new MinkwitzParser(name,verbose,evaluator);
             xmlReader.setContentHandler(minkwitzParser);
             xmlReader.setErrorHandler(new ErrorHandler(System.err));
             xmlReader.parse(fileName);
@@ -345,5 +388,31 @@ public class MinkwitzChain {
 
     }
 
+    public static MinkwitzChain load(File file, String name) throws IOException {
+        return load(file, name, null);
+    }
 
+    /**
+     * Reads a chain that was written with {@link #save(File, boolean)}.
+     *
+     * @param file the binary chain file
+     * @param name the name of the chain
+     * @param evaluator computes the group element of a word, it is only needed for files without permutations
+     * @return the chain
+     * @throws IOException if the file cannot be read, has the wrong format or a wrong checksum
+     */
+    public static MinkwitzChain load(File file, String name, Function<String, GroupElement> evaluator) throws IOException {
+        List<ChainFile.Level> levels = ChainFile.read(file, ChainFile.MINKWITZ, evaluator);
+        MinkwitzChain chain = null;
+        for (int l = levels.size() - 1; l >= 0; l--) {
+            ChainFile.Level level = levels.get(l);
+            Map<Byte, GroupElement> representatives = new HashMap<>();
+            for (Byte point : level.orbit) {
+                List<GroupElement> elements = level.representatives.get(point);
+                representatives.put(point, elements == null ? null : elements.get(0));
+            }
+            chain = new MinkwitzChain(level.orbit, representatives, chain, l == 0 ? name : "");
+        }
+        return chain;
+    }
 }
@@ -0,0 +1,379 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.Arrays;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class PackedWord stores a word of generators with 4 bits per letter.
+ *
+ * The letters are numbered by an {@link Alphabet}, that belongs to the word. Together with a letter its toggled case, i.e. its inverse,
+ * is numbered, therefore an alphabet encodes up to 16 letters. The group creates the alphabet of its generators, so every word of the
+ * group is packed, independently of the other groups of the process. Words with up to 16 letters are stored inline in a long,
+ * longer words in a byte array with two letters per byte. Words with a letter that cannot be encoded are kept as a string.
+ *
+ * The words are immutable. Concatenation of words of the same alphabet, inversion and length work on the packed form directly.
+ * As a CharSequence a word is read letter by letter, without decoding it into a string.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public final class PackedWord implements CharSequence, Comparable<PackedWord> {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    public static final PackedWord EMPTY = new PackedWord(0, 0L, null, null, null);
+
+    private static final int INLINE_LETTERS = 16;
+
+    private final int length;
+    //letter i in the bits 4i..4i+3, for words with up to 16 letters
+    private final long inline;
+    //letter i in the lower (even i) or upper (odd i) half of byte i/2, for longer words
+    private final byte[] packed;
+    //words with letters that cannot be encoded
+    private final String text;
+    //the numbering of the letters, null for the empty word and for text words
+    private final Alphabet alphabet;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    private PackedWord(int length, long inline, byte[] packed, String text, Alphabet alphabet) {
+        this.length = length;
+        this.inline = inline;
+        this.packed = packed;
+        this.text = text;
+        this.alphabet = alphabet;
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (text != null)
+            return text.charAt(index);
+        return alphabet.letters[code(index)];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * @return true, if the word is stored with 4 bits per letter
+     */
+    public boolean isPacked() {
+        return text == null;
+    }
+
+    /**
+     * @return the alphabet of the packed word, null for the empty word and for words kept as a string
+     */
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Words of the same alphabet are concatenated in packed form, otherwise the letters are encoded again
+     */
+    public PackedWord concat(PackedWord suffix) {
+        if (suffix.length == 0)
+            return this;
+        if (length == 0)
+            return suffix;
+        if (text != null || suffix.text != null)
+            return new PackedWord(length + suffix.length, 0L, null, toString() + suffix, null);
+        if (alphabet != suffix.alphabet)
+            return of(toString() + suffix, alphabet.join(suffix.alphabet));
+
+        int newLength = length + suffix.length;
+        if (newLength <= INLINE_LETTERS)
+            return new PackedWord(newLength, inline | suffix.inline << (4 * length), null, null, alphabet);
+
+        byte[] bytes = new byte[(newLength + 1) / 2];
+        if (packed != null && length % 2 == 0) {
+            System.arraycopy(packed, 0, bytes, 0, packed.length);
+        } else {
+            for (int i = 0; i < length; i++)
+                setCode(bytes, i, code(i));
+        }
+        for (int i = 0; i < suffix.length; i++)
+            setCode(bytes, length + i, suffix.code(i));
+        return new PackedWord(newLength, 0L, bytes, null, alphabet);
+    }
+
+    /**
+     * The letters in reversed order, each letter replaced by its inverse
+     */
+    public PackedWord inverse() {
+        if (length == 0)
+            return this;
+        if (text == null && alphabet.invertible) {
+            byte[] inverseCodes = alphabet.inverses;
+            if (packed == null) {
+                long result = 0L;
+                for (int i = 0; i < length; i++)
+                    result |= (long) inverseCodes[code(i)] << (4 * (length - 1 - i));
+                return new PackedWord(length, result, null, null, alphabet);
+            }
+            byte[] bytes = new byte[packed.length];
+            for (int i = 0; i < length; i++)
+                setCode(bytes, length - 1 - i, inverseCodes[code(i)]);
+            return new PackedWord(length, 0L, bytes, null, alphabet);
+        }
+
+        StringBuilder inverse = new StringBuilder(length);
+        for (int i = length - 1; i >= 0; i--)
+            inverse.append(toggleCase(charAt(i)));
+        return new PackedWord(length, 0L, null, inverse.toString(), null);
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private int code(int index) {
+        if (packed == null)
+            return (int) (inline >>> (4 * index)) & 0xF;
+        return (packed[index >> 1] >>> (4 * (index & 1))) & 0xF;
+    }
+
+    private static void setCode(byte[] bytes, int index, int code) {
+        bytes[index >> 1] |= (byte) (code << (4 * (index & 1)));
+    }
+
+    /*****************************
+     **** Overrides     **********
+     *****************************/
+
+    @Override
+    public String toString() {
+        if (text != null)
+            return text;
+        if (length == 0)
+            return "";
+        char[] letters = alphabet.letters;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = letters[code(i)];
+        return new String(chars);
+    }
+
+    /**
+     * Words are equal, if they have the same letters, independently of their alphabets
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedWord)) return false;
+        PackedWord other = (PackedWord) o;
+        if (length != other.length)
+            return false;
+        if (text == null && other.text == null && alphabet == other.alphabet) {
+            if (packed == null)
+                return inline == other.inline;
+            return Arrays.equals(packed, other.packed);
+        }
+        for (int i = 0; i < length; i++)
+            if (charAt(i) != other.charAt(i))
+                return false;
+        return true;
+    }
+
+    /**
+     * The hash code of the letters as for strings, so it doesn't depend on the alphabet
+     */
+    @Override
+    public int hashCode() {
+        if (text != null)
+            return text.hashCode();
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+            hash = 31 * hash + alphabet.letters[code(i)];
+        return hash;
+    }
+
+    /**
+     * Lexicographic order of the letters as for strings
+     */
+    @Override
+    public int compareTo(PackedWord o) {
+        int n = Math.min(length, o.length);
+        for (int i = 0; i < n; i++) {
+            char c1 = charAt(i);
+            char c2 = o.charAt(i);
+            if (c1 != c2)
+                return c1 - c2;
+        }
+        return length - o.length;
+    }
+
+    /*****************************
+     **** static methods **********
+     *****************************/
+
+    /**
+     * The word is encoded with an alphabet of its own letters. Words of a group should be created with the alphabet of the group,
+     * see {@link #of(String, Alphabet)}, then they are concatenated without encoding the letters again.
+     */
+    public static PackedWord of(String word) {
+        if (word.isEmpty())
+            return EMPTY;
+        return of(word, Alphabet.of(word));
+    }
+
+    /**
+     * @param word
+     * @param alphabet the alphabet of the group, null for an alphabet of the letters of the word
+     * @return the packed word, or the word kept as a string, if a letter is not in the alphabet
+     */
+    public static PackedWord of(String word, Alphabet alphabet) {
+        int length = word.length();
+        if (length == 0)
+            return EMPTY;
+        if (alphabet == null)
+            return of(word);
+
+        if (length <= INLINE_LETTERS) {
+            long result = 0L;
+            for (int i = 0; i < length; i++) {
+                int code = alphabet.code(word.charAt(i));
+                if (code < 0)
+                    return new PackedWord(length, 0L, null, word, null);
+                result |= (long) code << (4 * i);
+            }
+            return new PackedWord(length, result, null, null, alphabet);
+        }
+
+        byte[] bytes = new byte[(length + 1) / 2];
+        for (int i = 0; i < length; i++) {
+            int code = alphabet.code(word.charAt(i));
+            if (code < 0)
+                return new PackedWord(length, 0L, null, word, null);
+            setCode(bytes, i, code);
+        }
+        return new PackedWord(length, 0L, bytes, null, alphabet);
+    }
+
+    private static char toggleCase(char c) {
+        return Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c);
+    }
+
+    /**
+     * Immutable numbering of up to 16 letters, a letter is numbered together with its toggled case.
+     *
+     * Alphabets of the same letters are shared, therefore the words of a group have the identical alphabet, no matter where they
+     * were created. Which letters are numbered only depends on the letters passed in, not on other alphabets.
+     */
+    public static final class Alphabet {
+
+        private static final int LETTERS = 128;
+        //the shared alphabets by their sorted letters
+        private static final Map<String, Alphabet> ALPHABETS = new ConcurrentHashMap<>();
+
+        //code+1 of an ASCII letter, 0 for letters without code
+        private final byte[] codes = new byte[LETTERS];
+        //sorted letters, the code of a letter is its index
+        private final char[] letters;
+        //code of the inverse letter, -1 if the inverse has no code
+        private final byte[] inverses;
+        //true, if all inverses have a code
+        private final boolean invertible;
+
+        private Alphabet(String sortedLetters) {
+            this.letters = sortedLetters.toCharArray();
+            for (int i = 0; i < letters.length; i++)
+                if (letters[i] < LETTERS)
+                    codes[letters[i]] = (byte) (i + 1);
+            this.inverses = new byte[letters.length];
+            boolean invertible = true;
+            for (int i = 0; i < letters.length; i++) {
+                inverses[i] = (byte) code(toggleCase(letters[i]));
+                invertible &= inverses[i] >= 0;
+            }
+            this.invertible = invertible;
+        }
+
+        /**
+         * @param letters the letters of the generators, the letters are added with their toggled case in this order, as long as
+         *                there is space for both
+         * @return the shared alphabet of the letters
+         */
+        public static Alphabet of(CharSequence letters) {
+            StringBuilder selected = new StringBuilder(INLINE_LETTERS);
+            for (int i = 0; i < letters.length(); i++) {
+                char letter = letters.charAt(i);
+                if (selected.indexOf(String.valueOf(letter)) >= 0)
+                    continue;
+                char inverse = toggleCase(letter);
+                boolean pair = inverse != letter && selected.indexOf(String.valueOf(inverse)) < 0;
+                if (selected.length() + (pair ? 2 : 1) > INLINE_LETTERS)
+                    continue;
+                selected.append(letter);
+                if (pair)
+                    selected.append(inverse);
+            }
+            char[] sorted = selected.toString().toCharArray();
+            Arrays.sort(sorted);
+            return ALPHABETS.computeIfAbsent(new String(sorted), Alphabet::new);
+        }
+
+        /**
+         * @param letter
+         * @return the code of the letter, -1 if the letter has no code
+         */
+        public int code(char letter) {
+            if (letter < LETTERS)
+                return codes[letter] - 1;
+            for (int i = 0; i < letters.length; i++)
+                if (letters[i] == letter)
+                    return i;
+            return -1;
+        }
+
+        public int size() {
+            return letters.length;
+        }
+
+        /**
+         * @return this alphabet, if it contains the letters of the other one, otherwise the alphabet of the letters of both
+         */
+        private Alphabet join(Alphabet other) {
+            if (containsAll(other))
+                return this;
+            if (other.containsAll(this))
+                return other;
+            return of(new String(letters) + new String(other.letters));
+        }
+
+        private boolean containsAll(Alphabet other) {
+            for (char letter : other.letters)
+                if (code(letter) < 0)
+                    return false;
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return new String(letters);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.numbercruncher.rubikscube.math;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -72,6 +73,21 @@ public class Permutation implements Comparable<Permutation> {
         return this.setImage;
     }
 
+    /**
+     * The image of the permutation as a plain byte array,
+     * the i-th entry is the image of the point i.
+     *
+     * @return a new array of length degree
+     */
+    public byte[] getImage() {
+        Set set = this.getSetImage();
+        byte[] image = new byte[this.degree];
+        for (int i = 0; i < this.degree; i++) {
+            image[i] = set.get(i);
+        }
+        return image;
+    }
+
     public int getDegree() {
         return degree;
     }
@@ -100,6 +116,21 @@ public class Permutation implements Comparable<Permutation> {
         return 1>=this.cycles.stream().mapToInt(Cycle::getCycleLength).max().orElse(0);
     }
 
+    /**
+     * The order of the permutation is the least common multiple of its cycle lengths.
+     *
+     * @return the smallest positive n with p^n = 1
+     */
+    public int order(){
+        int order = 1;
+        for (Cycle cycle : cycles) {
+            int length = cycle.getCycleLength();
+            if (length > 1)
+                order = order / BigInteger.valueOf(order).gcd(BigInteger.valueOf(length)).intValue() * length;
+        }
+        return order;
+    }
+
     /*************************************
      *********** Setter      ***************
      **************************************/
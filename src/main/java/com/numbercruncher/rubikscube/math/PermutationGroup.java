@@ -7,13 +7,19 @@ import com.numbercruncher.rubikscube.utils.StringUtils;
 import java.io.*;
 import java.math.BigInteger;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.numbercruncher.rubikscube.utils.MathUtils.variations;
-import static com.numbercruncher.rubikscube.utils.StringUtils.subWords;
 import static com.numbercruncher.rubikscube.utils.StringUtils.toggleCase;
 
 public class PermutationGroup {
@@ -21,15 +27,25 @@ public class PermutationGroup {
     /*****************************
      **** Attribute **************
      *****************************/
+    //number of cached prefix products of the word evaluator per thread
+    private static final int WORD_EVALUATOR_CACHE_SIZE = 1<<14;
+
     private final List<Permutation> generators;
     private final String name;
     private final Map<String,Permutation> gens;
     private final Map<String,Permutation> invGens;
     private final List<String> generatorLabels;
+    //numbering of the letters of the words of the group
+    private final PackedWord.Alphabet alphabet;
     private int degree;
     private final List<Function<String,String>> rules;
+    private final WordReducer wordReducer;
     private final List<Function<Byte,Boolean>> basisSelectionRules;
+    private StabilizerChain.GeneratorFilter generatorFilter = StabilizerChain.GeneratorFilter.none;
+    //all points, the points that satisfy all basis selection rules come first
+    private byte[] basePointOrder;
     private StabilizerChain stabilizerChain;
+    private SiftingTable siftingTable;
     private MinkwitzChain minkwitzChain;
     private ExtendedMinkwitzChain extendedMinkwitzChain;
     private GroupIterator iterator;
@@ -37,13 +53,20 @@ public class PermutationGroup {
 
     private final List<GroupElement> groupElementGenerators;
     private TreeMap<String,GroupElement> wordGeneratorMap;
+    private WordEvaluator wordEvaluator;
 
     private final Permutation one;
     private TreeMap<String, String> simplifyingRules;
+    //the simplifying rules compiled into an automaton, it is dropped, when the rules change
+    private RewritingSystem rewritingSystem;
+    private List<Symmetry> symmetries;
+    private boolean inverseAugmentation = false;
+    private boolean symmetryAugmentation = false;
+    private TrainingJournal trainingJournal;
 
     private Comparator<GroupElement> groupElementWordLengthComparator = (o1, o2) -> {
-        String s1 = o1.getWord();
-        String s2 = o2.getWord();
+        PackedWord s1 = o1.getPackedWord();
+        PackedWord s2 = o2.getPackedWord();
         int l1 = s1.length();
         int l2 = s2.length();
         if (l1 == l2)
@@ -55,6 +78,10 @@ public class PermutationGroup {
     //load the data of shortest words from a file
     //each list of bytes encodes
     private List<String> shortestWords;
+    private int numberOfShortestWords;
+    //base image to shortest word, see simplifyWord
+    private Map<Base,String> shortestWordTable;
+    private int shortestWordTableSize;
 
     /*****************************
      **** Konstruktor*************
@@ -77,9 +104,10 @@ public class PermutationGroup {
                 .boxed() // Converts the int stream to an Integer stream
                 .collect(Collectors.toMap(i -> labels[i], i -> generators.get(i)));
 
+        this.alphabet = PackedWord.Alphabet.of(String.join("",generatorNames));
         this.groupElementGenerators = new ArrayList<>();
         for (String generatorName : generatorNames) {
-            this.groupElementGenerators.add(new GroupElement(gens.get(generatorName),generatorName));
+            this.groupElementGenerators.add(new GroupElement(gens.get(generatorName),PackedWord.of(generatorName,alphabet)));
         }
 
         this.invGens = IntStream.range(0,labels.length)
@@ -88,27 +116,16 @@ public class PermutationGroup {
         this.generatorLabels=List.of(labels);
 
         for (String generatorName : generatorNames) {
-            this.groupElementGenerators.add(new GroupElement(invGens.get(toggleCase(generatorName)),toggleCase(generatorName)));
+            this.groupElementGenerators.add(new GroupElement(invGens.get(toggleCase(generatorName)),PackedWord.of(toggleCase(generatorName),alphabet)));
         }
 
         this.rules=new ArrayList<>();
         this.basisSelectionRules=new ArrayList<>();
-
-        for (String label : generatorLabels) {
-            rules.add(s -> {
-                String previous;
-                do{
-
-                    previous=s;
-                    s=s.replaceAll(label+ toggleCase(label),"")
-                            .replaceAll(toggleCase(label)+label,"");
-
-                }while(!s.equals(previous));
-                return s;
-            });
-        }
+        //cancellation of inverses and the orders of the generators
+        this.wordReducer = new WordReducer(generatorLabels,generators);
 
         this.one=Permutation.parse("("+(this.getDegree()-1)+")");
+        compileBasePointOrder();
     }
 
     public PermutationGroup(List<Permutation> generators) {
@@ -136,7 +153,10 @@ public class PermutationGroup {
 
     public StabilizerChain getStabilizerChain(){
         if (this.stabilizerChain==null){
-            schreierSims();
+            if (!loadStabilizerChain()) {
+                schreierSims();
+                saveStabilizerChain();
+            }
         }
         return this.stabilizerChain;
     }
@@ -146,10 +166,91 @@ public class PermutationGroup {
         return this.stabilizerChain;
     }
 
+    /**
+     * Computes a stabilizer chain of the group, whose base starts with the given points.
+     * The chain is derived from the main stabilizer chain by a change of base with known group order:
+     * Uniformly distributed random elements are obtained from the main chain and sifted into the new chain.
+     * Elements that don't sift extend the orbit of the level, where they fail. The construction is complete,
+     * when the product of the orbit sizes matches the group size.
+     *
+     * @param basePrefix the first base points of the new chain
+     * @return the new stabilizer chain, the main chain is not changed
+     */
+    public StabilizerChain getStabilizerChainWithBase(byte... basePrefix){
+        StabilizerChain mainChain = this.getStabilizerChain();
+        BigInteger size = calcGroupSize(mainChain);
+
+        StabilizerChain newChain = new StabilizerChain();
+        StabilizerChain level = newChain;
+        for (byte point : basePrefix) {
+            level.addOrbitPoint(point);
+            level.addCosetRepresentative(point,one);
+            level.setStabilizer(new StabilizerChain());
+            level = level.getStabilizer();
+        }
+
+        while (calcGroupSize(newChain).compareTo(size)<0){
+            siftIntoChain(newChain,randomChainElement(mainChain));
+        }
+        return newChain;
+    }
+
+    /**
+     * The stabilizer chain of the pointwise stabilizer of the given points, e.g. all corners of the cube.
+     *
+     * @param points the points that are fixed by all elements of the subgroup
+     * @return
+     */
+    public StabilizerChain getPointwiseStabilizerChain(byte... points){
+        StabilizerChain chain = getStabilizerChainWithBase(points);
+        for (int i = 0; i < points.length; i++) {
+            chain = chain.getStabilizer();
+        }
+        return chain;
+    }
+
+    /**
+     * The Minkwitz chain of the pointwise stabilizer of the given points.
+     * A Minkwitz chain is trained for the stabilizer chain with the given base points first.
+     * The training elements drop into the levels of the stabilizer as residues of the upper levels.
+     *
+     * @param numberOfElements the number of training elements
+     * @param points the points that are fixed by all elements of the subgroup
+     * @return
+     */
+    public MinkwitzChain getPointwiseStabilizerMinkwitzChain(int numberOfElements, byte... points){
+        StabilizerChain chain = getStabilizerChainWithBase(points);
+        String chainName = this.name+"_stabilizer_"+Arrays.toString(points);
+        MinkwitzChain minkwitzChain = new MinkwitzChain(chain,this.groupElementGenerators,chainName);
+        trainMinkwitzChain(minkwitzChain,numberOfElements);
+        for (int i = 0; i < points.length; i++) {
+            minkwitzChain = minkwitzChain.getStabilizerChain();
+        }
+        return minkwitzChain;
+    }
+
+    /**
+     * An immutable snapshot of the stabilizer chain for fast membership tests
+     * @return
+     */
+    public SiftingTable getSiftingTable(){
+        if (this.siftingTable==null){
+            this.siftingTable = new SiftingTable(this.getStabilizerChain(),this.getDegree());
+        }
+        return this.siftingTable;
+    }
+
     public String getName(){
         return this.name;
     }
 
+    /**
+     * @return the numbering of the letters, with which the words of the group are packed
+     */
+    public PackedWord.Alphabet getAlphabet(){
+        return this.alphabet;
+    }
+
     public BigInteger getSize(){
         StabilizerChain chain = getStabilizerChain();
         return calcGroupSize(chain);
@@ -170,6 +271,26 @@ public class PermutationGroup {
         return this.groupElementGenerators;
     }
 
+    public List<Function<String,String>> getWordRules(){
+        return this.rules;
+    }
+
+    public WordReducer getWordReducer(){
+        return this.wordReducer;
+    }
+
+    /**
+     * All symmetries of the group, including the identity
+     * @see Symmetry
+     * @return
+     */
+    public List<Symmetry> getSymmetries(){
+        if (this.symmetries==null){
+            this.symmetries = Symmetry.findSymmetries(this);
+        }
+        return this.symmetries;
+    }
+
     public TreeMap<String,String> getSimplifyingRules(int numberOfRules){
         return getSimplifyingRules(numberOfRules,false);
     }
@@ -181,6 +302,71 @@ public class PermutationGroup {
         return this.simplifyingRules;
     }
 
+    /**
+     * The simplifying rules compiled into an automaton. The rules have to be generated or loaded before.
+     *
+     * @return
+     */
+    public RewritingSystem getRewritingSystem(){
+        if (this.rewritingSystem==null && this.simplifyingRules!=null){
+            this.rewritingSystem = new RewritingSystem(this.simplifyingRules);
+        }
+        return this.rewritingSystem;
+    }
+
+    /**
+     * The compiled automaton of the simplifying rules. If no rules are present, the automaton is memory-mapped from the rules directory,
+     * without parsing the rules. Otherwise the rules are loaded or generated, compiled and the automaton is stored for the next time.
+     * A stored automaton is only used, if it was compiled from the current rules file, i.e. the checksums of the rules file match.
+     * @see RewritingSystem#load(File)
+     *
+     * @param numberOfRules
+     * @param verbose
+     * @return
+     */
+    public RewritingSystem getRewritingSystem(int numberOfRules, boolean verbose){
+        if (this.rewritingSystem!=null || this.simplifyingRules!=null)
+            return this.getRewritingSystem();
+
+        File dir = IOUtils.getResourceDirectory("rules");
+        File file = dir==null ? null : new File(dir, name+"_"+numberOfRules+".rws");
+        File rulesFile = dir==null ? null : new File(dir, name+"_"+numberOfRules+".txt");
+        if (file!=null && file.exists()) {
+            try {
+                RewritingSystem system = RewritingSystem.load(file);
+                if (!rulesFile.exists() || system.getSourceChecksum()==RewritingSystem.checksum(rulesFile)) {
+                    this.rewritingSystem = system;
+                    if (verbose) System.out.println("Rewriting system with "+system.size()+" rules mapped!");
+                    return system;
+                }
+                if (verbose) Logger.logging(Logger.Level.warning, "Rewriting system "+file+" is outdated, the rules are compiled again\n");
+            } catch (IOException ex) {
+                if (verbose) Logger.logging(Logger.Level.warning, ex.getMessage() + "\n");
+            }
+        }
+
+        this.getSimplifyingRules(numberOfRules,verbose);
+        int sourceChecksum = 0;
+        if (rulesFile!=null && rulesFile.exists()) {
+            try {
+                sourceChecksum = RewritingSystem.checksum(rulesFile);
+            } catch (IOException ex) {
+                if (verbose) Logger.logging(Logger.Level.warning, ex.getMessage() + "\n");
+            }
+        }
+        RewritingSystem system = new RewritingSystem(this.simplifyingRules, sourceChecksum);
+        this.rewritingSystem = system;
+        if (file!=null) {
+            try {
+                system.save(file);
+            } catch (IOException ex) {
+                ex.printStackTrace();
+                if (verbose) Logger.logging(Logger.Level.warning, ex.getMessage() + "\n");
+            }
+        }
+        return system;
+    }
+
     public MinkwitzChain getMinkwitzChain(int numberOfElements, boolean verbose){
         if (this.minkwitzChain==null){
             createMinkwitzChain(numberOfElements,verbose);
@@ -221,6 +407,17 @@ public class PermutationGroup {
         return wordGeneratorMap;
     }
 
+    /**
+     * Computes the permutations of words without intermediate permutations. The prefix products of the recently evaluated words are cached.
+     * @return
+     */
+    public WordEvaluator getWordEvaluator() {
+        if (this.wordEvaluator==null){
+            this.wordEvaluator = new WordEvaluator(this.groupElementGenerators,WORD_EVALUATOR_CACHE_SIZE);
+        }
+        return wordEvaluator;
+    }
+
      /**** Setter    **************
      *****************************/
 
@@ -228,8 +425,39 @@ public class PermutationGroup {
         this.rules.add(rule);
     }
 
+    /**
+     * The inverse of each training element is used for training as well
+     * @param inverseAugmentation
+     */
+    public void setInverseAugmentation(boolean inverseAugmentation){
+        this.inverseAugmentation = inverseAugmentation;
+    }
+
+    /**
+     * The conjugates of each training element with the symmetries of the group are used for training as well
+     * @param symmetryAugmentation
+     */
+    public void setSymmetryAugmentation(boolean symmetryAugmentation){
+        this.symmetryAugmentation = symmetryAugmentation;
+    }
+
     public void addBasisSelectionRule(Function<Byte,Boolean> rule){
         this.basisSelectionRules.add(rule);
+        compileBasePointOrder();
+    }
+
+    /**
+     * Select a filter that keeps the number of generators of each level of the stabilizer chain small.
+     * A stabilizer chain that has been computed already is dropped.
+     *
+     * @param generatorFilter
+     */
+    public void setGeneratorFilter(StabilizerChain.GeneratorFilter generatorFilter){
+        if (this.generatorFilter!=generatorFilter) {
+            this.generatorFilter = generatorFilter;
+            this.stabilizerChain = null;
+            this.siftingTable = null;
+        }
     }
 
 
@@ -296,9 +524,59 @@ public class PermutationGroup {
     }
 
     public GroupIterator getIterator(int numberOfElements){
+        if (this.shortestWords!=null && this.numberOfShortestWords==numberOfElements)
+            return new GroupIterator(this, numberOfElements, this.shortestWords);
         return new GroupIterator(this, numberOfElements);
     }
 
+    /**
+     * Reads the extended Minkwitz chain, the simplification rules and the shortest words concurrently from their files.
+     * The time for each file is logged. Data that could not be loaded is generated afterwards, as usual.
+     *
+     * @param preTraining
+     * @param numberOfElements
+     * @param numberOfSimplificationRules
+     * @param maxBranching
+     * @param numberOfShortestWords the size of the shortest words file that is used by {@link #getIterator(int)}
+     * @param verbose
+     * @return the extended Minkwitz chain
+     */
+    public ExtendedMinkwitzChain preload(int preTraining, int numberOfElements, int numberOfSimplificationRules, int maxBranching, int numberOfShortestWords, boolean verbose){
+        long start = System.currentTimeMillis();
+        //is initialized before the evaluator is used by several threads
+        this.getWordEvaluator();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<ExtendedMinkwitzChain> chain = executor.submit(timed("extended Minkwitz chain",
+                    () -> ExtendedMinkwitzChain.load(this.name, preTraining, numberOfElements, maxBranching, false, this::wordToPermutation)));
+            Future<Boolean> rules = executor.submit(timed("simplification rules",
+                    () -> numberOfSimplificationRules <= 0 || this.simplifyingRules != null || loadSimplificationRules(verbose, numberOfSimplificationRules)));
+            Future<List<String>> words = executor.submit(timed("shortest words",
+                    () -> GroupIterator.readShortestWords(this.name, numberOfShortestWords)));
+
+            if (this.extendedMinkwitzChain == null)
+                this.extendedMinkwitzChain = chain.get();
+            rules.get();
+            List<String> shortestWords = words.get();
+            if (shortestWords != null) {
+                this.shortestWords = shortestWords;
+                this.numberOfShortestWords = numberOfShortestWords;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        Logger.logging(Logger.Level.info, "Preloaded " + this.name + " in " + (System.currentTimeMillis() - start) + " ms\n");
+
+        //missing data is generated
+        return this.getExtendedMinkwitzChain(preTraining, numberOfElements, numberOfSimplificationRules, maxBranching, verbose);
+    }
+
     public boolean contains(GroupElement element){
         return this.contains(element.getPermutation());
     }
@@ -311,27 +589,76 @@ public class PermutationGroup {
         return checkElement(perm, getStabilizerChain());
     }
 
+    /**
+     * Batch membership test. The permutations are sifted in parallel through an immutable snapshot of the stabilizer chain.
+     *
+     * @param perms the permutations to be tested
+     * @return a bitmap, the i-th bit is set, when the i-th permutation is an element of the group
+     */
+    public BitSet containsAll(Collection<Permutation> perms){
+        int[] depths = siftDepths(perms);
+        BitSet members = new BitSet(depths.length);
+        for (int i = 0; i < depths.length; i++) {
+            if (depths[i]==SiftingTable.MEMBER)
+                members.set(i);
+        }
+        return members;
+    }
+
+    public BitSet contains(Stream<Permutation> perms){
+        return containsAll(perms.collect(Collectors.toList()));
+    }
+
+    /**
+     * Batch sifting of permutations, see {@link SiftingTable#siftDepth(Permutation)}
+     *
+     * @param perms the permutations to be sifted
+     * @return for each permutation the level, where the sifting failed or {@link SiftingTable#MEMBER}
+     */
+    public int[] siftDepths(Collection<Permutation> perms){
+        SiftingTable table = this.getSiftingTable();
+        //random access by index, other collections like a LinkedList are copied
+        List<Permutation> list = perms instanceof List && perms instanceof RandomAccess ? (List<Permutation>) perms : new ArrayList<>(perms);
+        int[] depths = new int[list.size()];
+        IntStream.range(0,depths.length).parallel().forEach(i->depths[i]=table.siftDepth(list.get(i)));
+        return depths;
+    }
+
     public GroupElement randomElement(int n){
-        GroupElement out = new GroupElement(one,"");
+        Permutation product = one;
+        //when rules are available, the word is kept in normal form during the walk
+        ReducedWord reducedWord = this.getRewritingSystem()==null ? null : this.getRewritingSystem().newWord();
+        StringBuilder word = new StringBuilder();
         for (int i = 0; i < n; i++) {
-            Optional<Map.Entry<String, Permutation>> optional;
             String label = generatorLabels.get((int)(Math.random()*generatorLabels.size()));
+            Permutation perm;
             if (Math.random() < 0.5)
             //pick random map.entry from gens
             {
-                Permutation perm = gens.get(label);
-                out=out.multiply(new GroupElement(perm,label));
+                perm = gens.get(label);
             } else {
                 label = toggleCase(label);
-                Permutation perm = invGens.get(label);
-                out=out.multiply(new GroupElement(perm,label));
+                perm = invGens.get(label);
             }
-
-        }
-        out.wordSimplify(rules);
+            product = product.multiply(perm);
+            if (reducedWord!=null)
+                reducedWord.append(label);
+            else
+                word.append(label);
+        }
+        GroupElement out = new GroupElement(product,PackedWord.of(reducedWord==null ? word.toString() : reducedWord.toString(),alphabet));
+        wordSimplify(out);
         return out;
     }
 
+    /**
+     * Cancels inverses and reduces powers of the generators in a single pass, the additional word rules are applied afterwards
+     * @param element
+     */
+    public void wordSimplify(GroupElement element){
+        element.wordSimplify(this.wordReducer,this.rules);
+    }
+
     public void visualizeStabilizerChain(){
         StabilizerChain chain = getStabilizerChain();
         String out = "Stabilizer chain orbit structure:\n";
@@ -351,23 +678,153 @@ public class PermutationGroup {
     }
 
 
+    /**
+     * The changes of the representatives are recorded in a journal, that is written in the background.
+     * An interrupted training is recovered from the journal and continued after the last recorded training element.
+     * The chain is saved, when the training is finished.
+     *
+     * @param minkwitzChain
+     * @param start
+     * @param end
+     * @return
+     */
     public MinkwitzChain trainMinkwitzChain(MinkwitzChain minkwitzChain, int start, int end) {
+        int resume = -1;
+        File directory = IOUtils.getResourceDirectory("minkwitz");
+        if (directory!=null) {
+            long fingerprint = TrainingJournal.fingerprint(this.groupElementGenerators, minkwitzChain);
+            this.trainingJournal = new TrainingJournal(directory, minkwitzChain.getName() + "_" + end, fingerprint);
+            resume = this.trainingJournal.replay(minkwitzChain, this::wordToElement);
+            this.trainingJournal.start();
+        }
 
         int max = 0;
         for (GroupIterator it = this.getIterator(end); it.hasNext() && max<=end; ) {
             GroupElement permutation = it.next();
 
-            if (max>=start)
-                trainSubChain(minkwitzChain,permutation);
-            if (max%1600==0)
-                minkwitzChain.save("_"+max);
+            if (max>=start && max>resume)
+                for (GroupElement element : augment(permutation))
+                    trainSubChain(minkwitzChain,element,0);
+            if (max%1600==0 && this.trainingJournal!=null)
+                this.trainingJournal.progress(max);
 
             max++;
         }
 
+        minkwitzChain.save("_"+end);
+        if (this.trainingJournal!=null) {
+            try {
+                this.trainingJournal.close();
+                this.trainingJournal.delete();
+            } catch (IOException e) {
+                Logger.logging(Logger.Level.warning, "Training journal could not be closed: " + e.getMessage() + "\n");
+            }
+            this.trainingJournal = null;
+        }
+        return minkwitzChain;
+    }
+
+    /**
+     * The training elements start...end are sifted by several threads in parallel.
+     * @see ConcurrentMinkwitzTraining
+     *
+     * @param minkwitzChain
+     * @param start
+     * @param end
+     * @param numberOfThreads
+     * @return
+     */
+    public MinkwitzChain trainMinkwitzChainConcurrently(MinkwitzChain minkwitzChain, int start, int end, int numberOfThreads) {
+        new ConcurrentMinkwitzTraining(this,numberOfThreads).train(minkwitzChain,start,end);
+        minkwitzChain.save("_"+end);
+        return minkwitzChain;
+    }
+
+    /**
+     * The training elements start...end are sifted by a pipeline with one thread for each level of the chain.
+     * @see PipelinedMinkwitzTraining
+     *
+     * @param minkwitzChain
+     * @param start
+     * @param end
+     * @return
+     */
+    public MinkwitzChain trainMinkwitzChainPipelined(MinkwitzChain minkwitzChain, int start, int end) {
+        new PipelinedMinkwitzTraining(this).train(minkwitzChain,start,end);
+        minkwitzChain.save("_"+end);
+        return minkwitzChain;
+    }
+
+    /**
+     * Minkwitz' original training scheme: random words of bounded length are sifted through the chain.
+     * Whenever a shorter representative is found, the old representative is exchanged and sifted further down instead.
+     *
+     * After every improveInterval elements, an improve round multiplies the existing representatives within and across levels.
+     * Each level has its own word length limit, longer residuals are discarded. The limits of the incomplete levels grow by 5/4
+     * after each improve round, the limits of complete levels are frozen. Therefore, the improve rounds stay cheap for the upper levels.
+     *
+     * @param minkwitzChain the chain that is trained
+     * @param numberOfElements the number of random words
+     * @param randomWordLength the length of the random words, which is also the initial limit of each level
+     * @param improveInterval the number of random words between two improve rounds
+     * @return
+     */
+    public MinkwitzChain trainMinkwitzChainRandomWalk(MinkwitzChain minkwitzChain, int numberOfElements, int randomWordLength, int improveInterval) {
+        List<MinkwitzChain> levels = new ArrayList<>();
+        for (MinkwitzChain level = minkwitzChain; !level.isLast(); level = level.getStabilizerChain())
+            levels.add(level);
+
+        int[] limits = new int[levels.size()];
+        Arrays.fill(limits, randomWordLength);
+
+        for (int count = 1; count <= numberOfElements; count++) {
+            siftRandomWalk(levels, 0, randomElement(randomWordLength), limits);
+
+            if (count % improveInterval == 0 || count == numberOfElements) {
+                improveRandomWalk(levels, limits);
+
+                //grow the limits of the incomplete levels
+                boolean complete = true;
+                for (int i = 0; i < levels.size(); i++) {
+                    if (levels.get(i).getCosetRepresentatives().values().stream().anyMatch(Objects::isNull)) {
+                        limits[i] = limits[i] * 5 / 4 + 1;
+                        complete = false;
+                    }
+                }
+                if (complete && count >= improveInterval)
+                    break;
+            }
+        }
+        minkwitzChain.save("_random_" + numberOfElements);
+        return minkwitzChain;
+    }
+
+    /**
+     * Training with commutators and conjugates of short words, which fill the deep levels of the chain.
+     * The upper levels are filled faster with the short words of the group iterator, therefore the macros are best used after the usual training.
+     * @see MacroIterator
+     *
+     * @param minkwitzChain
+     * @param numberOfWords the number of short words that are combined
+     * @param numberOfMacros the number of macros that are used for training
+     * @return
+     */
+    public MinkwitzChain trainMinkwitzChainWithMacros(MinkwitzChain minkwitzChain, int numberOfWords, int numberOfMacros) {
+        for (MacroIterator it = new MacroIterator(this, numberOfWords, numberOfMacros); it.hasNext(); ) {
+            trainSubChain(minkwitzChain, it.next(), 0);
+        }
+        minkwitzChain.save("_macros_"+numberOfWords+"_"+numberOfMacros);
         return minkwitzChain;
     }
 
+    public ExtendedMinkwitzChain trainExtendedMinkwitzChainWithMacros(ExtendedMinkwitzChain extendedMinkwitzChain, int numberOfWords, int numberOfMacros, int maxBranching) {
+        for (MacroIterator it = new MacroIterator(this, numberOfWords, numberOfMacros); it.hasNext(); ) {
+            trainExtendedSubChain(extendedMinkwitzChain, it.next(), maxBranching, 0);
+        }
+        extendedMinkwitzChain.save("_macros_"+numberOfWords+"_"+numberOfMacros+"_"+maxBranching);
+        return extendedMinkwitzChain;
+    }
+
     /**
      * low level training, the elements are only added to the lowest level stabilizer group
      * fast and a large number of elements can be processed
@@ -380,7 +837,8 @@ public class PermutationGroup {
         for (GroupIterator it = this.getIterator(end); it.hasNext() && max<=end; ) {
             GroupElement permutation = it.next();
 
-            trainStabilizerExtendedSubChain(extendedMinkwitzChain,permutation,0);
+            for (GroupElement element : augment(permutation))
+                trainStabilizerExtendedSubChain(extendedMinkwitzChain,element,0);
 
             max++;
         }
@@ -398,7 +856,8 @@ public class PermutationGroup {
             if (max%10000==0)
                 System.out.println(max+": "+"Train with: "+permutation);
             if (max>=start)
-                trainExtendedSubChain(extendedMinkwitzChain,permutation,maxBranching,0);
+                for (GroupElement element : augment(permutation))
+                    trainExtendedSubChain(extendedMinkwitzChain,element,maxBranching,0);
 
             max++;
         }
@@ -411,6 +870,19 @@ public class PermutationGroup {
         return extendedMinkwitzChain;
     }
 
+    public ExtendedMinkwitzChain trainExtendedMinkwitzChainConcurrently(ExtendedMinkwitzChain extendedMinkwitzChain,int preTraining, int start, int end,int maxBranching,int numberOfThreads) {
+        ConcurrentMinkwitzTraining training = new ConcurrentMinkwitzTraining(this,numberOfThreads);
+        training.setSimplifyingRules(this.simplifyingRules);
+        training.train(extendedMinkwitzChain,start,end,maxBranching);
+
+        if (maxBranching==1)
+            extendedMinkwitzChain.save("_"+preTraining+"_"+end);
+        else
+            extendedMinkwitzChain.save("_"+preTraining+"_"+(end+1)+"_"+maxBranching);
+
+        return extendedMinkwitzChain;
+    }
+
     public void visualizeMinkwitzChain(MinkwitzChain chain){
         String out = "Minkwitz chain orbit structure:\n";
         out+= "====================+++++======\n";
@@ -457,7 +929,7 @@ public class PermutationGroup {
     public String elementToWord(Permutation permutation, int numberOfElements,int numberOfRules,boolean verbose){
         MinkwitzChain chain = this.getMinkwitzChain(numberOfElements,verbose);
         GroupElement element  = elementToWordRecursive(permutation,chain);
-        element.apply(this.getSimplifyingRules(numberOfRules,verbose),verbose);
+        element.apply(this.getRewritingSystem(numberOfRules,verbose));
         return element.getWord();
     }
 
@@ -480,6 +952,19 @@ public class PermutationGroup {
         return elementToWord(permutation,numberOfElements,numberOfRules,false);
     }
 
+    /**
+     * Computes the word representation of a permutation with the given Minkwitz chain,
+     * e.g. the chain of a pointwise stabilizer, which the permutation must be an element of.
+     *
+     * @param permutation
+     * @param chain
+     * @return
+     */
+    public String elementToWord(Permutation permutation, MinkwitzChain chain){
+        GroupElement element = elementToWordRecursive(permutation,chain);
+        return element==null ? null : element.getWord();
+    }
+
 
     /** Convert a given String of letters into a group element
      *
@@ -487,12 +972,28 @@ public class PermutationGroup {
      * @return
      */
     public GroupElement wordToElement(String word){
-        GroupElement out = new GroupElement(one,"");
-        for(int i = 0; i < word.length(); i++)
-            out =out.multiply(this.getWordGeneratorMap().get(word.substring(i,i+1)));
-        return out;
+        return this.getWordEvaluator().toElement(word);
     }
 
+    /** Computes the permutation of a given String of letters, without building the intermediate words and permutations
+     *
+     * @param word
+     * @return
+     */
+    public Permutation wordToPermutation(String word){
+        return this.getWordEvaluator().toPermutation(word);
+    }
+
+    /**
+     * The rules are found by a breadth-first search. Whenever a word reaches a known base image, that has a shorter word, a rule is stated.
+     * The prefix of the word without the last letter is always a shortest word. Only if the suffix without the first letter is a shortest word as well,
+     * the word contains no other left-hand side and the rule is not implied by a shorter rule.
+     * The layers of the search are processed in parallel and the rules are written to the rules file, as soon as they are found.
+     * @see SimplificationRuleGenerator
+     *
+     * @param numberOfRules
+     * @param verbose
+     */
     public void generateSimplificationRules(int numberOfRules,boolean verbose){
         if (loadSimplificationRules(verbose,numberOfRules)){
             if (verbose) System.out.println("Simplification rules loaded!");
@@ -500,63 +1001,31 @@ public class PermutationGroup {
         }
 
         if (verbose) System.out.println("Try to create " + numberOfRules + " simplifying rules");
-        //Construct a trivial group iterator
-        Deque<GroupElement> queue=new ArrayDeque<>();
-        TreeMap<Base, String> elements = new TreeMap<>();
-        //Store rules in reverse order that the longer rules are applied first
-        this.simplifyingRules = new TreeMap<>(new SimplifyingRuleComparator());
-
-        boolean limitReached = false;
-        Base base = this.getBase();
-        int counter = 0;
-
-        elements.put(base,"");
-        queue.offer(new GroupElement(one,""));
-
-//        List<GroupElement> reversedGenerators = new ArrayList<>();
-//        for (GroupElement groupElementGenerator : groupElementGenerators) {
-//            reversedGenerators.add(0,groupElementGenerator);
-//        }
-        int old =0;
-        while (!queue.isEmpty()) {
-            GroupElement element = queue.poll();
-
-            //if the queue once exceeds the maximum number of elements we can stop generating new elements
-            if (this.simplifyingRules.size() > numberOfRules) limitReached = true;
-
-
-            if (old!=this.simplifyingRules.size()  && this.simplifyingRules.size()%100==0){
-                System.out.println(this.simplifyingRules.size());
-                old = this.simplifyingRules.size() ;
-            }
-
-            if (numberOfRules == -1 || !limitReached) {
-                //make sure that the queue is extended with every possible child of the element that is extracted from the queue
-                for (GroupElement generator : this.groupElementGenerators) {
-                    GroupElement next = element.multiply(generator);
-                    Base nextBase = base.action(next.getPermutation());
-
-
-                    if (!elements.containsKey(nextBase)) {
-                        queue.offer(next);
-                        elements.put(nextBase, next.getWord());
-                    } else {
-                        //state simplification rule
-                        next.apply(this.simplifyingRules);
-                        String src = next.getWord();
-                        String target = elements.get(nextBase);
-                        if (src.length() > target.length()) {
-                            counter++;
-                            if (verbose ) System.out.println(counter+": "+src + "->" + target);
-                            this.simplifyingRules.put(src, target);
-                        }
-
-                    }
+        SimplificationRuleGenerator generator = new SimplificationRuleGenerator(this.groupElementGenerators,this.getBase());
+        File dir = IOUtils.getResourceDirectory("rules");
+        if (dir==null) {
+            this.simplifyingRules = generator.generate(numberOfRules,null,verbose);
+        }
+        else {
+            //the rules are streamed into a temporary file, that is moved to the rules file, when it is complete.
+            //Therefore a rules file is never loaded partially.
+            File file = new File(dir, name + "_" + numberOfRules + ".txt");
+            File temporary = new File(file.getPath() + ".tmp");
+            try {
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(temporary))) {
+                    this.simplifyingRules = generator.generate(numberOfRules, writer, verbose);
                 }
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | UncheckedIOException ex) {
+                ex.printStackTrace();
+                if (verbose) Logger.logging(Logger.Level.warning, ex.getMessage() + "\n");
+                if (!temporary.delete() && temporary.exists() && verbose)
+                    Logger.logging(Logger.Level.warning, "Could not delete " + temporary + "\n");
+                if (this.simplifyingRules == null)
+                    this.simplifyingRules = generator.generate(numberOfRules,null,verbose);
             }
         }
-
-        saveSimplificationRules(verbose,numberOfRules);
+        this.rewritingSystem = null;
         if (verbose) System.out.println("Simplification rules generated!");
     }
 
@@ -564,6 +1033,56 @@ public class PermutationGroup {
         saveSimplificationRules(true,this.simplifyingRules.size());
     }
 
+    /**
+     * Rules that are implied by the other rules are removed. The minimized rules replace the simplifying rules and are stored in the rules directory.
+     * @see KnuthBendix#minimize(Map)
+     *
+     * @param numberOfRules the number of learned rules, that are minimized
+     * @param verbose
+     * @return the minimized rules
+     */
+    public TreeMap<String,String> minimizeSimplificationRules(int numberOfRules, boolean verbose){
+        String suffix = numberOfRules+"_minimal";
+        if (loadSimplificationRules(verbose,suffix)){
+            if (verbose) System.out.println("Minimized simplification rules loaded!");
+            return this.simplifyingRules;
+        }
+
+        TreeMap<String,String> rules = this.getSimplifyingRules(numberOfRules,verbose);
+        this.simplifyingRules = KnuthBendix.minimize(rules);
+        this.rewritingSystem = null;
+        if (verbose) System.out.println(rules.size()+" rules minimized to "+this.simplifyingRules.size()+" rules");
+        saveSimplificationRules(verbose,suffix);
+        return this.simplifyingRules;
+    }
+
+    /**
+     * The simplifying rules are completed to a confluent rewriting system with the Knuth-Bendix procedure.
+     * The completed rules replace the simplifying rules and are stored in the rules directory.
+     * @see KnuthBendix
+     *
+     * @param numberOfRules the number of learned rules, that are completed
+     * @param maxRuleLength longer rules are dropped during the completion
+     * @param maxNumberOfRules the completion stops, when this number of rules is exceeded
+     * @param verbose
+     * @return the completed rules
+     */
+    public TreeMap<String,String> completeSimplificationRules(int numberOfRules, int maxRuleLength, int maxNumberOfRules, boolean verbose){
+        String suffix = numberOfRules+"_confluent_"+maxRuleLength+"_"+maxNumberOfRules;
+        if (loadSimplificationRules(verbose,suffix)){
+            if (verbose) System.out.println("Completed simplification rules loaded!");
+            return this.simplifyingRules;
+        }
+
+        TreeMap<String,String> rules = this.getSimplifyingRules(numberOfRules,verbose);
+        KnuthBendix completion = new KnuthBendix(maxRuleLength,maxNumberOfRules);
+        this.simplifyingRules = completion.complete(rules);
+        this.rewritingSystem = null;
+        if (verbose) System.out.println(rules.size()+" rules completed to "+this.simplifyingRules.size()+" rules, confluent: "+completion.isConfluent());
+        saveSimplificationRules(verbose,suffix);
+        return this.simplifyingRules;
+    }
+
     /**
      * this method tries to replace group elements of the extended minkwitz chain by shorter words.
      * This only makes sense, when the chain hasn't been trained by as many elements
@@ -579,66 +1098,91 @@ public class PermutationGroup {
 
     /**
      * This method tries to simplify the parameter word.
-     * It creates all possible partitions of various length and tries to find replacements
-     * elements of the first shortest words that generate the same basis image
+     * All subwords are looked up in a table of the first shortest words, the longest subwords first.
+     * A subword or its inverse, that has the same base image as a shorter word of the table, is replaced.
+     *
+     * The base image of the subword w[i..j] is computed from the prefix products, since it is the image of prefix_i^{-1}*prefix_j.
+     * Therefore every subword costs one table lookup without any multiplication of permutations.
      * @param word
-     * @return
+     * @return the simplified word
      */
     public String simplifyWord(String word, int nShortestWords){
-        System.out.println(word+" is replaced by: ");
-        String simplerWord="";
-
-        Base base = this.getBase();
-        int baseLength = base.length();
-        TreeMap<Base,String> baseImageMap =  new TreeMap<>();
+        Map<Base,String> table = this.getShortestWordTable(nShortestWords);
+        byte[] base = this.getBase().getBase();
+        int degree = this.getDegree();
+
+        String current = word;
+        boolean replaced = true;
+        while (replaced) {
+            replaced = false;
+            int length = current.length();
+
+            //images of the prefixes and their inverses
+            byte[][] prefixes = new byte[length+1][];
+            byte[][] inversePrefixes = new byte[length+1][];
+            prefixes[0] = one.getImage();
+            for (int k = 0; k < length; k++) {
+                byte[] generator = this.getWordGeneratorMap().get(current.substring(k,k+1)).getPermutation().getImage();
+                byte[] prefix = new byte[degree];
+                for (int x = 0; x < degree; x++)
+                    prefix[x] = generator[prefixes[k][x]];
+                prefixes[k+1] = prefix;
+            }
+            for (int k = 0; k <= length; k++) {
+                byte[] inverse = new byte[degree];
+                for (int x = 0; x < degree; x++)
+                    inverse[prefixes[k][x]] = (byte) x;
+                inversePrefixes[k] = inverse;
+            }
 
-        int count = 0;
-        for (GroupIterator it = this.getIterator(nShortestWords); it.hasNext(); ) {
-            GroupElement g = it.next();
-            baseImageMap.put(base.action(g.getPermutation()),g.toFullWordString());
-
-        }
-
-        String oldWord = word;
-        String newWord = word;
-        boolean first =  true;
-        while (first || oldWord.length()>newWord.length()) {
-            first = false;
-            oldWord = newWord;
-            boolean replaced = false;
-            for (int i = word.length(); i > 1; i--) {
-                List<String> parts = subWords(word, i);
-                for (String part : parts) {
-                    GroupElement element = wordToElement(part);
-                    Base image = base.action(element.getPermutation());
-                    if (baseImageMap.containsKey(image)) {
-                        String replacement = baseImageMap.get(image);
-                        if (part.length() > replacement.length()) {
-                            newWord = newWord.replace(part, replacement);
-                            replaced = true;
-                            System.out.println(oldWord.length()+"->"+newWord.length());
-                            break;
-                        }
+            search:
+            for (int l = length; l > 1; l--) {
+                for (int i = 0; i + l <= length; i++) {
+                    int j = i + l;
+                    //image of the subword prefix_i^{-1}*prefix_j
+                    byte[] image = new byte[base.length];
+                    for (int k = 0; k < base.length; k++)
+                        image[k] = prefixes[j][inversePrefixes[i][base[k]]];
+                    String replacement = table.get(new Base(image));
+                    if (replacement == null || replacement.length() >= l) {
+                        //image of the inverse subword prefix_j^{-1}*prefix_i
+                        byte[] inverseImage = new byte[base.length];
+                        for (int k = 0; k < base.length; k++)
+                            inverseImage[k] = prefixes[i][inversePrefixes[j][base[k]]];
+                        replacement = table.get(new Base(inverseImage));
+                        if (replacement != null)
+                            replacement = toggleCase(new StringBuilder(replacement).reverse().toString());
                     }
-                    Base ivImage = base.action(element.getPermutation().inverse());
-                    if (baseImageMap.containsKey(ivImage)) {
-                        String replacement = baseImageMap.get(ivImage);
-                        if (part.length() > replacement.length()) {
-                            replacement = toggleCase(replacement);
-                            replacement = new StringBuilder(replacement).reverse().toString();
-                            newWord = newWord.replace(part, replacement);
-                            replaced = true;
-                            System.out.println(oldWord.length()+"->"+newWord.length());
-                            break;
-                        }
+                    if (replacement != null && replacement.length() < l) {
+                        current = current.substring(0, i) + replacement + current.substring(j);
+                        replaced = true;
+                        break search;
                     }
-                    if (replaced) break;
                 }
             }
         }
 
-        System.out.println(newWord);
-        return simplerWord;
+        if (current.length() < word.length())
+            System.out.println(word.length()+"->"+current.length());
+        return current;
+    }
+
+    /**
+     * Table from the base image to the shortest word of the first elements of the group iterator.
+     * The table is kept until a different number of words is requested.
+     */
+    private Map<Base,String> getShortestWordTable(int nShortestWords){
+        if (this.shortestWordTable==null || this.shortestWordTableSize!=nShortestWords) {
+            Base base = this.getBase();
+            Map<Base,String> table = new HashMap<>();
+            for (GroupIterator it = this.getIterator(nShortestWords); it.hasNext(); ) {
+                GroupElement g = it.next();
+                table.putIfAbsent(base.action(g.getPermutation()), g.toFullWordString());
+            }
+            this.shortestWordTable = table;
+            this.shortestWordTableSize = nShortestWords;
+        }
+        return this.shortestWordTable;
     }
 
     /*****************************
@@ -648,7 +1192,7 @@ public class PermutationGroup {
     private void recursivelySimplify(ExtendedMinkwitzChain chain, int nShortestWords) {
         for (Map.Entry<Byte, TreeSet<GroupElement>> reps : chain.getCosetRepresentativesMap().entrySet()) {
             for (GroupElement element : reps.getValue()) {
-                simplifyWord(element.getWord(),nShortestWords);
+                element.setWord(simplifyWord(element.getWord(),nShortestWords));
             }
         }
         if (!chain.isLast())
@@ -656,6 +1200,62 @@ public class PermutationGroup {
     }
 
 
+    /**
+     * The stabilizer chain is fully determined by the generators, the basis selection rules and the generator filter.
+     * The key is a content hash of them. The rules are represented by the compiled order of base points.
+     *
+     * @return hex representation of the hash
+     */
+    private String getStabilizerChainKey(){
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(4).putInt(this.getDegree()).array());
+            digest.update(this.generatorFilter.name().getBytes());
+            for (Permutation generator : this.generators) {
+                digest.update(generator.getImage());
+            }
+            digest.update(this.basePointOrder);
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key.append(String.format("%02x", b));
+            }
+            return key.substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private File getStabilizerChainFile(){
+        File dir = IOUtils.getResourceDirectory("stabilizer_chains");
+        if (dir == null)
+            return null;
+        return new File(dir, this.name + "_" + getStabilizerChainKey() + ".bin");
+    }
+
+    private boolean loadStabilizerChain(){
+        File file = getStabilizerChainFile();
+        if (file == null || !file.exists())
+            return false;
+        try {
+            this.stabilizerChain = StabilizerChain.load(file);
+            return true;
+        } catch (IOException e) {
+            Logger.logging(Logger.Level.warning, "Could not load cached stabilizer chain " + file + "\n" + e.getMessage(), this);
+        }
+        return false;
+    }
+
+    private void saveStabilizerChain(){
+        File file = getStabilizerChainFile();
+        if (file == null)
+            return;
+        try {
+            this.stabilizerChain.save(file, this.getDegree());
+        } catch (IOException e) {
+            Logger.logging(Logger.Level.warning, "Could not cache stabilizer chain in " + file + "\n" + e.getMessage(), this);
+        }
+    }
+
     private void computeBase(){
         List<Byte> basePoints = new ArrayList<>(getBasePoints(this.getStabilizerChain()));
         this.base = new Base(basePoints);
@@ -673,6 +1273,61 @@ public class PermutationGroup {
     }
 
 
+    /**
+     * A uniformly distributed random element of the group, which is the product of random coset representatives of each level
+     */
+    private Permutation randomChainElement(StabilizerChain chain){
+        Permutation g = one;
+        for (StabilizerChain level = chain; !level.isLast(); level = level.getStabilizer()) {
+            List<Byte> orbit = level.getOrbit();
+            Permutation rep = level.getCosetRepresentative(orbit.get((int) (Math.random()*orbit.size())));
+            g = rep.multiply(g);
+        }
+        return g;
+    }
+
+    /**
+     * The permutation is sifted through the chain. The residue extends the level, where the sifting fails.
+     * Schreier generators are not considered, the lower levels are filled by the residues of further elements.
+     */
+    private void siftIntoChain(StabilizerChain chain, Permutation g){
+        StabilizerChain level = chain;
+        while (!level.isLast()) {
+            byte delta = g.action(level.getOrbit().get(0));
+            Permutation rep = level.getCosetRepresentative(delta);
+            if (rep == null) {
+                extendOrbit(level, g);
+                return;
+            }
+            g = g.multiply(rep.inverse());
+            level = level.getStabilizer();
+        }
+
+        if (!g.isIdentity()) {
+            //new level at the end of the chain
+            byte beta = getBasePoint(g);
+            level.addOrbitPoint(beta);
+            level.addCosetRepresentative(beta, one);
+            level.setStabilizer(new StabilizerChain());
+            extendOrbit(level, g);
+        }
+    }
+
+    private void extendOrbit(StabilizerChain level, Permutation g){
+        level.addGenerator(g);
+        List<Byte> orbit = level.getOrbit();
+        for (int i = 0; i < orbit.size(); i++) {
+            byte delta = orbit.get(i);
+            for (Permutation generator : level.getGenerators()) {
+                byte gamma = generator.action(delta);
+                if (level.getCosetRepresentative(gamma) == null) {
+                    orbit.add(gamma);
+                    level.addCosetRepresentative(gamma, level.getCosetRepresentative(delta).multiply(generator));
+                }
+            }
+        }
+    }
+
     private BigInteger calcGroupSize(StabilizerChain chain) {
         if (chain.isLast()){
             return BigInteger.ONE;
@@ -684,6 +1339,7 @@ public class PermutationGroup {
 
 
     private void schreierSims(List<GroupElement> generators) {
+        this.siftingTable = null;
         this.stabilizerChain = new StabilizerChain();
         for (GroupElement generator : generators) {
             schreierSimsRecursive(this.stabilizerChain, generator.getPermutation());
@@ -691,6 +1347,7 @@ public class PermutationGroup {
     }
 
     private void schreierSims(){
+        this.siftingTable = null;
         this.stabilizerChain=new StabilizerChain();
         for (Permutation generator : generators) {
             schreierSimsRecursive(this.stabilizerChain,generator);
@@ -699,6 +1356,9 @@ public class PermutationGroup {
 
     private void schreierSimsRecursive(StabilizerChain chain, Permutation g){
         if (!this.contains(g)){
+            if (this.generatorFilter==StabilizerChain.GeneratorFilter.sims)
+                g = chain.filterGenerator(g);
+
             if (chain.getGenerators().isEmpty()){
                 //empty stabilizer chain
                 chain.setStabilizer(new StabilizerChain());
@@ -763,30 +1423,38 @@ public class PermutationGroup {
         }
     }
 
-    private byte getBasePoint(Permutation g){
-        List<Byte> omega = IntStream.range(0,this.degree)
-                .mapToObj(v->Byte.parseByte(v+""))
-                .collect(Collectors.toList());
-
-        List<Byte> prefered =  IntStream.range(0,this.degree)
-                .mapToObj(v->Byte.parseByte(v+""))
-                .collect(Collectors.toList());
-
-        for (Function<Byte,Boolean> rule : basisSelectionRules)
-            prefered = prefered.stream().filter(rule::apply).collect(Collectors.toList());
-
-        for (Byte b : prefered) {
-            byte beta = g.action(b);
-            if (beta!=b) return b;
+    /**
+     * The preferred base points are the points that satisfy all basis selection rules.
+     * They are followed by the remaining points, which are the fall back, when the rules cannot be satisfied.
+     */
+    private void compileBasePointOrder(){
+        int degree = this.getDegree();
+        byte[] order = new byte[degree];
+        boolean[] preferred = new boolean[degree];
+        int count = 0;
+        for (int v = 0; v < degree; v++) {
+            preferred[v]=true;
+            for (Function<Byte,Boolean> rule : basisSelectionRules) {
+                if (!rule.apply((byte) v)) {
+                    preferred[v] = false;
+                    break;
+                }
+            }
+            if (preferred[v])
+                order[count++]=(byte) v;
         }
-
-        //fall back to full omega, when the rules cannot be satisfied
-
-        for (Byte b : omega) {
-            byte beta = g.action(b);
-            if (beta!=b) return b;
+        for (int v = 0; v < degree; v++) {
+            if (!preferred[v])
+                order[count++]=(byte) v;
         }
+        this.basePointOrder = order;
+    }
 
+    private byte getBasePoint(Permutation g){
+        Set image = g.getSetImage();
+        for (byte b : this.basePointOrder) {
+            if (image.get(b)!=b) return b;
+        }
         return -1;//this case should not occur :-)
     }
     /**
@@ -867,7 +1535,9 @@ public class PermutationGroup {
     private void createMinkwitzChain(int numberOfElements, boolean verbose){
         //Try to load existing MinkwitzChain
 
-        MinkwitzChain minkwitzChain = MinkwitzChain.load(this.name,numberOfElements);
+        //the permutations of the representatives are computed from their words, when they are needed
+        this.getWordEvaluator();
+        MinkwitzChain minkwitzChain = MinkwitzChain.load(this.name,numberOfElements,false,this::wordToPermutation);
         if (verbose) System.out.println("Minkwitz chain trained with "+numberOfElements+" is loaded!");
         if (minkwitzChain==null) {
             //Create new Minkwitz chain from the stabilizer chain data
@@ -884,7 +1554,8 @@ public class PermutationGroup {
 
     private void createExtendedMinkwitzChain(int preTraining, int numberOfElements, int maxBranching, boolean verbose){
         //Try to load existing MinkwitzChain
-        ExtendedMinkwitzChain extendedMinkwitzChain = ExtendedMinkwitzChain.load(this.name,preTraining,numberOfElements,maxBranching);
+        this.getWordEvaluator();
+        ExtendedMinkwitzChain extendedMinkwitzChain = ExtendedMinkwitzChain.load(this.name,preTraining,numberOfElements,maxBranching,false,this::wordToPermutation);
         if (verbose) System.out.println("Extended Minkwitz chain trained with "+numberOfElements+" is loaded!");
         if (extendedMinkwitzChain==null) {
             //Create new Minkwitz chain from the stabilizer chain data
@@ -1030,35 +1701,115 @@ public class PermutationGroup {
         }
     }
 
-    private int trainSubChain(MinkwitzChain minkwitzChain, GroupElement g) {
+    /**
+     * sift the element from the given level downwards,
+     * the shorter of the new element and the existing representative is kept in the table
+     */
+    private void siftRandomWalk(List<MinkwitzChain> levels, int index, GroupElement g, int[] limits) {
+        for (int i = index; i < levels.size(); i++) {
+            if (g.getWordLength() > limits[i])
+                return;
+
+            MinkwitzChain level = levels.get(i);
+            byte omega = level.getOrbit().get(0);
+            byte gamma = g.getPermutation().action(omega);
+            if (omega == gamma)
+                continue;
+
+            GroupElement rep = level.getCosetRepresentative(gamma);
+            if (rep == null) {
+                level.addCosetRepresentative(gamma, g);
+                return;
+            }
+            if (rep.getWordLength() > g.getWordLength()) {
+                //exchange, the old representative is sifted further down
+                level.addCosetRepresentative(gamma, g);
+                GroupElement tmp = g;
+                g = rep;
+                rep = tmp;
+            }
+            g = g.multiply(rep.inverse());
+            wordSimplify(g);
+        }
+    }
+
+    /**
+     * products of representatives of level i with representatives of the levels j>=i are sifted from level i
+     */
+    private void improveRandomWalk(List<MinkwitzChain> levels, int[] limits) {
+        for (int i = 0; i < levels.size(); i++) {
+            List<GroupElement> upper = levels.get(i).getCosetRepresentatives().values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+            for (int j = i; j < levels.size(); j++) {
+                List<GroupElement> lower = levels.get(j).getCosetRepresentatives().values().stream().filter(Objects::nonNull).collect(Collectors.toList());
+                for (GroupElement x : upper) {
+                    for (GroupElement y : lower) {
+                        if (x.getWordLength() + y.getWordLength() > limits[i])
+                            continue;
+                        GroupElement product = y.multiply(x);
+                        wordSimplify(product);
+                        siftRandomWalk(levels, i, product, limits);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * the training element together with its symmetry conjugates and inverses, if the augmentation is switched on.
+     * It is used by the sequential training loops and by the producers of the concurrent and the pipelined training.
+     */
+    List<GroupElement> augment(GroupElement g){
+        if (!inverseAugmentation && !symmetryAugmentation)
+            return List.of(g);
+
+        List<GroupElement> elements = new ArrayList<>();
+        elements.add(g);
+        if (symmetryAugmentation) {
+            for (Symmetry symmetry : getSymmetries()) {
+                if (!symmetry.isIdentity())
+                    elements.add(symmetry.conjugate(g));
+            }
+        }
+        if (inverseAugmentation) {
+            int size = elements.size();
+            for (int i = 0; i < size; i++) {
+                elements.add(elements.get(i).inverse());
+            }
+        }
+        return elements;
+    }
+
+    private int trainSubChain(MinkwitzChain minkwitzChain, GroupElement g, int depth) {
         if (!minkwitzChain.isLast()){
             List<Byte> orbit = minkwitzChain.getOrbit();
             byte omega = orbit.get(0);
             byte gamma = g.getPermutation().action(omega);
             if(omega==gamma){
                 //group element is element of the stabilizer group
-                return trainSubChain(minkwitzChain.getStabilizerChain(),g);
+                return trainSubChain(minkwitzChain.getStabilizerChain(),g,depth+1);
             }
             else{
                 //check whether it can be used as an orbit representative
                 GroupElement rep = minkwitzChain.getCosetRepresentative(gamma);
                 if (rep==null) {
                     minkwitzChain.addCosetRepresentative(gamma, g);
+                    if (this.trainingJournal!=null) this.trainingJournal.update(depth, gamma, g.getPackedWord());
                     return gamma;
                 }
                 else{
                     //check whether the g is a better representative
-                    if (rep.getWord().length()>g.getWord().length()) {
+                    if (rep.getWordLength()>g.getWordLength()) {
                         System.out.println(omega+" "+gamma+": "+rep.getWord() + "->" + g.getWord());
                         minkwitzChain.addCosetRepresentative(gamma, g);
+                        if (this.trainingJournal!=null) this.trainingJournal.update(depth, gamma, g.getPackedWord());
                         return gamma;
                     }
                     else{
                         //here we have two options to generate a stabilizer element
                         //1. g * rep^{-1}
-                        int result1 =  trainSubChain(minkwitzChain.getStabilizerChain(),g.multiply(rep.inverse()));
+                        int result1 =  trainSubChain(minkwitzChain.getStabilizerChain(),g.multiply(rep.inverse()),depth+1);
                         //2. rep * g^{-1}
-                        int result2 =  trainSubChain(minkwitzChain.getStabilizerChain(),rep.multiply(g.inverse()));
+                        int result2 =  trainSubChain(minkwitzChain.getStabilizerChain(),rep.multiply(g.inverse()),depth+1);
                         return Math.max(result1,result2);
                     }
                 }
@@ -1090,7 +1841,7 @@ public class PermutationGroup {
                 else{
                     //check whether the g is a better representative
                     GroupElement first = repList.first();
-                    if (first.getWord().length()>g.getWord().length()) {
+                    if (first.getWordLength()>g.getWordLength()) {
                         //System.out.println(first.getWord() + "->" + g.getWord());
                         //generate all possible stabilizer representatives first
                         int size = repList.size();
@@ -1103,9 +1854,9 @@ public class PermutationGroup {
                         }
                         for (GroupElement rep  : newRepList) {
                             if (Math.random()<0.5)
-                                trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(),g.multiply(rep.inverse(),this.simplifyingRules),maxBranching-1,depth+1);
+                                trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(),g.multiply(rep.inverse(),this.getRewritingSystem()),maxBranching-1,depth+1);
                             else
-                                trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(),rep.multiply(g.inverse(),this.simplifyingRules),maxBranching-1,depth+1);
+                                trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(),rep.multiply(g.inverse(),this.getRewritingSystem()),maxBranching-1,depth+1);
                         }
 
                         extendedMinkwitzChain.addCosetRepresentative(gamma, g,depth);//all old elements of the list will be erased
@@ -1125,10 +1876,10 @@ public class PermutationGroup {
                             //here we have two options to generate a stabilizer element
                             //1. g * rep^{-1}
                             if (Math.random()<0.5)
-                                result1 = trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(), g.multiply(rep.inverse(),this.simplifyingRules),maxBranching,depth+1);
+                                result1 = trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(), g.multiply(rep.inverse(),this.getRewritingSystem()),maxBranching,depth+1);
                                 //2. rep * g^{-1}
                             else
-                                result2 = trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(), rep.multiply(g.inverse(),this.simplifyingRules),maxBranching,depth+1);
+                                result2 = trainExtendedSubChain(extendedMinkwitzChain.getStabilizerChain(), rep.multiply(g.inverse(),this.getRewritingSystem()),maxBranching,depth+1);
                         }
                         extendedMinkwitzChain.addCosetRepresentative(gamma, g,depth+1);
                         return Math.max(result1,result2);
@@ -1214,7 +1965,7 @@ public class PermutationGroup {
             for (GroupElement element : rep) {
                 TreeSet<GroupElement> levelLower = elementToWordRecursiveExtended2(permutation.multiply(element.getPermutation().inverse()), chain.getStabilizerChain(),depth+1);
                 for (GroupElement part : levelLower) {
-                    GroupElement next = part.multiply(element, simplifyingRules);
+                    GroupElement next = part.multiply(element, this.getRewritingSystem());
                     //System.out.println(tabs+"yielding: "+next.toFullString());
                     if (!allElements.contains(next)) {
                         allElements.add(next);
@@ -1222,14 +1973,16 @@ public class PermutationGroup {
                         //Possible replace, when identical element with shorter word has been found
                         for (GroupElement groupElement : allElements) {
                             if (groupElement.compareTo(next) == 0) {
-                                if (groupElement.getWord().length() > next.getWord().length()) {
+                                if (groupElement.getWordLength() > next.getWordLength()) {
                                     this.simplifyingRules.put(groupElement.toFullWordString(),next.toFullWordString());
+                                    this.rewritingSystem = null;
                                     System.out.println(groupElement.toFullWordString()+"->"+next.toFullWordString());
                                     allElements.remove(groupElement);
                                     allElements.add(next);
                                 }
-                                else if (groupElement.getWord().length() > next.getWord().length()){
+                                else if (groupElement.getWordLength() > next.getWordLength()){
                                     this.simplifyingRules.put(next.toFullWordString(),groupElement.toFullString());
+                                    this.rewritingSystem = null;
                                     System.out.println(next.toFullWordString()+"->"+groupElement.toFullWordString());
                                 }
                                 break;
@@ -1281,7 +2034,7 @@ public class PermutationGroup {
                     System.out.println(levelLower.size()+" elements at "+depth+" depth");
                 }
                 for (GroupElement part : levelLower) {
-                    GroupElement next = part.multiply(element, simplifyingRules);
+                    GroupElement next = part.multiply(element, this.getRewritingSystem());
                     allElements.add(next);
                 }
             }
@@ -1342,8 +2095,8 @@ public class PermutationGroup {
                     }
                 }
                 for (GroupElement part : toKeep) {
-                    GroupElement next = part.multiply(element, simplifyingRules);
-                    List<String> factors = part.getFactors();
+                    GroupElement next = part.multiply(element, this.getRewritingSystem());
+                    List<String> factors = new ArrayList<>(part.getFactors());
                     factors.add(0,element.getWord());
                     next.setFactors(factors);
                     allElements.add(next);
@@ -1354,13 +2107,29 @@ public class PermutationGroup {
     }
 
 
+    private static <T> Callable<T> timed(String artifact, Callable<T> loader) {
+        return () -> {
+            long start = System.currentTimeMillis();
+            T result = loader.call();
+            Logger.logging(Logger.Level.info, "Loaded " + artifact + " in " + (System.currentTimeMillis() - start) + " ms\n");
+            return result;
+        };
+    }
+
     private boolean loadSimplificationRules(boolean verbose,int numberOfRulesToLoad) {
+        return loadSimplificationRules(verbose,String.valueOf(numberOfRulesToLoad));
+    }
+
+    private boolean loadSimplificationRules(boolean verbose,String suffix) {
         URL dirURL = IOUtils.getResourcePath("rules");
-        String fileName = dirURL.getFile()+"/"+name+"_"+numberOfRulesToLoad+".txt";
+        if (dirURL==null)
+            return false;
+        String fileName = dirURL.getFile()+"/"+name+"_"+suffix+".txt";
         try (BufferedReader reader = new BufferedReader(new FileReader(fileName)))
         {
             String line;
             this.simplifyingRules = new TreeMap<>(new SimplifyingRuleComparator());
+            this.rewritingSystem = null;
 
             while ((line = reader.readLine()) != null) {
                 if (!line.isEmpty()) {
@@ -1385,8 +2154,14 @@ public class PermutationGroup {
     }
 
     private void saveSimplificationRules(boolean verbose, int numberOfRulesToSave) {
-        URL dirURL = IOUtils.getResourcePath("rules");
-        String fileName = dirURL.getFile() + "/" + name+"_"+numberOfRulesToSave + ".txt";
+        saveSimplificationRules(verbose,String.valueOf(numberOfRulesToSave));
+    }
+
+    private void saveSimplificationRules(boolean verbose, String suffix) {
+        File dir = IOUtils.getResourceDirectory("rules");
+        if (dir==null)
+            return;
+        String fileName = dir.getPath() + "/" + name+"_"+suffix + ".txt";
 
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
             for (Map.Entry<String, String> entry : this.simplifyingRules.entrySet()) {
@@ -1463,19 +2238,6 @@ public class PermutationGroup {
         String[] labels = {"T", "D", "L","R",  "F", "B"};
         PermutationGroup rubiksGroup = new PermutationGroup("Rubik's Cube Group", labels, t,d, l, r, f,  b );
 
-        for (String label : labels) {
-            rubiksGroup.addWordRule(s->{
-                String previous;
-                do{
-                    previous=s;
-                    String tL = toggleCase(label);
-                    s=s.replaceAll(label+label+label,tL)
-                            .replaceAll(tL+tL+tL,label);
-                }while(!s.equals(previous));
-                return s;
-            });
-        }
-
         //prefer odd orbit elements (corners) to be stabilized first, when building the stabilizer chain
         rubiksGroup.addBasisSelectionRule(value->{return value%2!=0;});
         return rubiksGroup;
@@ -0,0 +1,229 @@
+package com.numbercruncher.rubikscube.math;
+
+import com.numbercruncher.rubikscube.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The class PipelinedMinkwitzTraining trains a Minkwitz chain with one thread for each level of the chain.
+ *
+ * Each level is a stage of a pipeline, which owns its coset representatives exclusively.
+ * A stage receives the elements from the stage above through a bounded queue. An element, which doesn't improve
+ * the representatives of the level, is combined with the existing representative. The residuals g*rep^{-1} and rep*g^{-1}
+ * are elements of the stabilizer and are forwarded to the stage below.
+ *
+ * No locks are needed, since no table is shared between threads. The end of the training stream is
+ * passed through the pipeline by a poison pill.
+ * The training elements are augmented by their symmetry conjugates and inverses, if the augmentation of the group is switched on.
+ *
+ * If a stage fails, it records the failure and keeps draining its queue, so that the stages above never block.
+ * The poison pill is still forwarded and the failure is rethrown by {@link #train(MinkwitzChain, int, int)}, after all stages are finished.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class PipelinedMinkwitzTraining {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int QUEUE_CAPACITY = 4096;
+    //marks the end of the training stream
+    private static final GroupElement POISON_PILL = new GroupElement(null, "");
+
+    private final PermutationGroup group;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public PipelinedMinkwitzTraining(PermutationGroup group) {
+        this.group = group;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Trains the Minkwitz chain with the elements start...end of the group iterator.
+     * The calling thread feeds the first stage.
+     *
+     * @param minkwitzChain the chain is updated, when all stages are finished
+     * @param start the first element that is used for training
+     * @param end the last element that is used for training
+     * @return the trained chain
+     * @throws IllegalStateException if a stage failed, the chain is not changed then
+     */
+    public MinkwitzChain train(MinkwitzChain minkwitzChain, int start, int end) {
+        List<Stage> stages = new ArrayList<>();
+        for (MinkwitzChain level = minkwitzChain; !level.isLast(); level = level.getStabilizerChain())
+            stages.add(new Stage(level, stages.size()));
+        if (stages.isEmpty())
+            return minkwitzChain;
+
+        for (int i = 0; i < stages.size() - 1; i++)
+            stages.get(i).next = stages.get(i + 1);
+
+        long startTime = System.currentTimeMillis();
+        List<Thread> threads = new ArrayList<>();
+        for (Stage stage : stages) {
+            Thread thread = new Thread(stage, "minkwitz-level-" + stage.index);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+
+        Stage first = stages.get(0);
+        try {
+            try {
+                int max = 0;
+                for (GroupIterator it = group.getIterator(end); it.hasNext() && max <= end && !failed(stages); ) {
+                    GroupElement element = it.next();
+                    if (max >= start)
+                        for (GroupElement augmented : group.augment(element))
+                            first.queue.put(augmented);
+                    max++;
+                }
+            } finally {
+                first.queue.put(POISON_PILL);
+            }
+
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            Logger.logging(Logger.Level.warning, "Pipelined training was interrupted\n");
+            return minkwitzChain;
+        }
+        for (Stage stage : stages) {
+            Throwable failure = stage.failure;
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            if (failure != null)
+                throw new IllegalStateException("Stage " + stage.index + " of the pipelined training failed", failure);
+        }
+        Logger.logging(Logger.Level.info, "Pipelined training of " + (end - start + 1) + " elements with " + stages.size() + " stages in " + (System.currentTimeMillis() - startTime) + " ms\n");
+
+        //write back
+        for (Stage stage : stages) {
+            for (Byte point : stage.level.getOrbit()) {
+                GroupElement rep = stage.representatives[point];
+                if (rep != null)
+                    stage.level.addCosetRepresentative(point, rep);
+            }
+        }
+        return minkwitzChain;
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private static boolean failed(List<Stage> stages) {
+        for (Stage stage : stages)
+            if (stage.failure != null)
+                return true;
+        return false;
+    }
+
+    /*****************************
+     **** inner classes  *********
+     *****************************/
+
+    private static class Stage implements Runnable {
+        private final MinkwitzChain level;
+        private final int index;
+        private final byte basePoint;
+        //only accessed by the thread of the stage
+        private final GroupElement[] representatives;
+        private final BlockingQueue<GroupElement> queue;
+        private Stage next;
+        //the first failure of the stage, it is read by the feeding thread
+        private volatile Throwable failure;
+
+        private Stage(MinkwitzChain level, int index) {
+            this.level = level;
+            this.index = index;
+            this.basePoint = level.getOrbit().get(0);
+            this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+            int degree = 0;
+            for (Byte point : level.getOrbit())
+                degree = Math.max(degree, point + 1);
+            this.representatives = new GroupElement[degree];
+            for (Byte point : level.getOrbit())
+                this.representatives[point] = level.getCosetRepresentative(point);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    GroupElement g = queue.take();
+                    if (g == POISON_PILL)
+                        return;
+                    //after a failure the queue is only drained
+                    if (failure == null) {
+                        try {
+                            sift(g);
+                        } catch (InterruptedException e) {
+                            throw e;
+                        } catch (Throwable t) {
+                            failure = t;
+                            Logger.logging(Logger.Level.warning, "Stage " + index + " of the pipelined training failed: " + t + "\n");
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                forwardPoisonPill();
+            }
+        }
+
+        private void forwardPoisonPill() {
+            if (next == null)
+                return;
+            try {
+                next.queue.put(POISON_PILL);
+            } catch (InterruptedException e) {
+                next.queue.offer(POISON_PILL);
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void sift(GroupElement g) throws InterruptedException {
+            byte gamma = g.getPermutation().action(basePoint);
+            if (gamma == basePoint) {
+                //group element is element of the stabilizer group
+                forward(g);
+                return;
+            }
+
+            GroupElement rep = representatives[gamma];
+            if (rep == null || rep.getWordLength() > g.getWordLength()) {
+                representatives[gamma] = g;
+            }
+            else {
+                //1. g * rep^{-1}
+                forward(g.multiply(rep.inverse()));
+                //2. rep * g^{-1}
+                forward(rep.multiply(g.inverse()));
+            }
+        }
+
+        private void forward(GroupElement g) throws InterruptedException {
+            if (next != null)
+                next.queue.put(g);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.Arrays;
+
+/**
+ * The class ReducedWord keeps a word in normal form under the rules of a {@link RewritingSystem}, while letters are appended.
+ *
+ * If the word contains no left-hand side of a rule, a new left-hand side can only appear at the end of the word after appending a letter.
+ * Therefore only the state of the automaton after each letter is stored. A replacement removes the left-hand side from the end
+ * and appends the letters of the right-hand side again, the states in front of the replacement remain valid.
+ * Since every rule makes the word smaller in the shortlex order, the rewriting terminates. For rules that shorten the word,
+ * the amortised cost of appending a letter is constant.
+ *
+ * The result is irreducible, but if the rules are not confluent, it can differ from {@link RewritingSystem#rewrite(String)}.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class ReducedWord {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private final RewritingSystem rewritingSystem;
+    private char[] letters;
+    //states[i] is the state of the automaton after the first i letters
+    private int[] states;
+    private int length;
+    //letters of right-hand sides that still have to be appended, the next letter is on top
+    private char[] pending = new char[16];
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public ReducedWord(RewritingSystem rewritingSystem) {
+        this(rewritingSystem, 16);
+    }
+
+    public ReducedWord(RewritingSystem rewritingSystem, CharSequence word) {
+        this(rewritingSystem, word.length() + 16);
+        append(word);
+    }
+
+    private ReducedWord(RewritingSystem rewritingSystem, int capacity) {
+        this.rewritingSystem = rewritingSystem;
+        this.letters = new char[capacity];
+        this.states = new int[capacity + 1];
+        this.states[0] = rewritingSystem.initialState();
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    public int length() {
+        return length;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Appends the letter and rewrites the end of the word, until it is irreducible again
+     *
+     * @param letter
+     * @return this word
+     */
+    public ReducedWord append(char letter) {
+        int top = 0;
+        pending[top++] = letter;
+        while (top > 0) {
+            char c = pending[--top];
+            ensureCapacity(length + 1);
+            letters[length] = c;
+            states[length + 1] = rewritingSystem.nextState(states[length], c);
+            length++;
+
+            int rule = rewritingSystem.matchingRule(states[length]);
+            if (rule >= 0) {
+                length -= rewritingSystem.leftSideLength(rule);
+                int replacementLength = rewritingSystem.rightSideLength(rule);
+                if (top + replacementLength > pending.length)
+                    pending = Arrays.copyOf(pending, Math.max(2 * pending.length, top + replacementLength));
+                for (int i = replacementLength - 1; i >= 0; i--)
+                    pending[top++] = rewritingSystem.rightSideChar(rule, i);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Appends the letters one after the other
+     *
+     * @param word
+     * @return this word
+     */
+    public ReducedWord append(CharSequence word) {
+        for (int i = 0; i < word.length(); i++)
+            append(word.charAt(i));
+        return this;
+    }
+
+    public ReducedWord copy() {
+        ReducedWord copy = new ReducedWord(rewritingSystem, letters.length);
+        System.arraycopy(letters, 0, copy.letters, 0, length);
+        System.arraycopy(states, 0, copy.states, 0, length + 1);
+        copy.length = length;
+        return copy;
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > letters.length) {
+            int newCapacity = Math.max(2 * letters.length, capacity);
+            letters = Arrays.copyOf(letters, newCapacity);
+            states = Arrays.copyOf(states, newCapacity + 1);
+        }
+    }
+
+    /*****************************
+     **** Overrides     **********
+     *****************************/
+
+    @Override
+    public String toString() {
+        return new String(letters, 0, length);
+    }
+}
@@ -0,0 +1,405 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * The class RewritingSystem compiles the simplification rules into an Aho-Corasick automaton.
+ *
+ * The automaton finds all matches of a word in a single pass. The match of the rule with the highest priority of the
+ * {@link SimplifyingRuleComparator} is replaced, i.e. the longest rules are applied first, as in
+ * {@link GroupElement#apply(java.util.TreeMap)}. After a replacement only the part of the word behind the
+ * beginning of the replacement is read again.
+ *
+ * Only rules that make the word smaller in the shortlex order are compiled, i.e. rules that shorten the word or
+ * replace it by a lexicographically smaller word of the same length, see {@link KnuthBendix}.
+ * Therefore the rewriting terminates. The result contains
+ * no left-hand side of a rule.
+ *
+ * The automaton is stored in a single buffer of integers, whose layout is also the file format:
+ *
+ * header: magic, version, size of the alphabet, number of states, number of rules, number of characters, checksum of the source rules
+ * alphabet: the letters, that appear in the left-hand sides, in the order of their index
+ * transitions: for each state and each letter the next state, the failure links are already resolved
+ * match: for each state the longest rule, that ends in the state, or -1
+ * rank: for each rule the position in the order of the SimplifyingRuleComparator
+ * offsets: for each rule the offset of its left-hand side and of its right-hand side in the characters, plus the end of the characters
+ * characters: all left-hand sides and right-hand sides, one character per integer
+ *
+ * The letters can be any characters. When the table is created or loaded, the index of the letters of the ASCII range is copied
+ * into an array and the index of the other letters into a map.
+ *
+ * A saved automaton is memory-mapped by {@link #load(File)} and the rewriting reads the mapped file directly. It costs neither the time
+ * to parse the rules nor heap memory, and the operating system shares the pages between processes, that use the same file.
+ * The checksum of the rules file, from which the automaton was compiled, is kept in the header, see {@link #checksum(File)}.
+ * So an automaton, whose rules file has changed since, can be detected without parsing the rules.
+ *
+ * The automaton is immutable and can be used by several threads.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class RewritingSystem {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int MAGIC = 0x52575359;//"RWSY"
+    private static final int VERSION = 3;
+    private static final int HEADER = 7;
+    private static final int LETTERS = 128;
+
+    private final IntBuffer table;
+    //index of the letters of the ASCII range, -1 for letters that don't appear in the rules
+    private final int[] letterIndex = new int[LETTERS];
+    private final Map<Character, Integer> otherLetterIndex = new HashMap<>();
+    private final int alphabetSize;
+    private final int numberOfStates;
+    private final int numberOfRules;
+    //positions of the sections in the table
+    private final int transitionStart;
+    private final int matchStart;
+    private final int rankStart;
+    private final int offsetStart;
+    private final int characterStart;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public RewritingSystem(Map<String, String> rules) {
+        this(rules, 0);
+    }
+
+    /**
+     * @param rules
+     * @param sourceChecksum the checksum of the rules file, see {@link #checksum(File)}, 0 if the rules have no file
+     */
+    public RewritingSystem(Map<String, String> rules, int sourceChecksum) {
+        this(compile(rules, sourceChecksum));
+    }
+
+    private RewritingSystem(IntBuffer table) {
+        this.table = table;
+        this.alphabetSize = table.get(2);
+        this.numberOfStates = table.get(3);
+        this.numberOfRules = table.get(4);
+        Arrays.fill(letterIndex, -1);
+        for (int i = 0; i < alphabetSize; i++) {
+            char letter = (char) table.get(HEADER + i);
+            if (letter < LETTERS)
+                letterIndex[letter] = i;
+            else
+                otherLetterIndex.put(letter, i);
+        }
+        this.transitionStart = HEADER + alphabetSize;
+        this.matchStart = transitionStart + numberOfStates * alphabetSize;
+        this.rankStart = matchStart + numberOfStates;
+        this.offsetStart = rankStart + numberOfRules;
+        this.characterStart = offsetStart + 2 * numberOfRules + 1;
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    /**
+     * @return the number of compiled rules
+     */
+    public int size() {
+        return numberOfRules;
+    }
+
+    /**
+     * @return the checksum of the rules file, from which the automaton was compiled, 0 if unknown
+     */
+    public int getSourceChecksum() {
+        return table.get(6);
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Applies the rules until no left-hand side of a rule is contained in the word.
+     *
+     * @param word
+     * @return the simplified word
+     */
+    public String rewrite(String word) {
+        int length = word.length();
+        if (numberOfRules == 0 || length == 0)
+            return word;
+
+        char[] letters = word.toCharArray();
+        //the state of the automaton after each letter and the best match that ends up to this letter.
+        //The entries up to the last replacement remain valid.
+        int[] states = new int[length + 1];
+        int[] bestRule = new int[length + 1];
+        int[] bestEnd = new int[length + 1];
+        bestRule[0] = -1;
+        int valid = 0;
+        boolean changed = false;
+
+        while (true) {
+            for (int i = valid; i < length; i++) {
+                int state = nextState(states[i], letters[i]);
+                states[i + 1] = state;
+                int rule = matchingRule(state);
+                if (rule >= 0 && (bestRule[i] < 0 || rank(rule) < rank(bestRule[i]))) {
+                    bestRule[i + 1] = rule;
+                    bestEnd[i + 1] = i + 1;
+                } else {
+                    bestRule[i + 1] = bestRule[i];
+                    bestEnd[i + 1] = bestEnd[i];
+                }
+            }
+            int best = bestRule[length];
+            if (best < 0)
+                break;
+
+            changed = true;
+            int end = bestEnd[length];
+            int leftLength = leftSideLength(best);
+            int rightLength = rightSideLength(best);
+            int start = end - leftLength;
+            System.arraycopy(letters, end, letters, start + rightLength, length - end);
+            for (int k = 0; k < rightLength; k++)
+                letters[start + k] = rightSideChar(best, k);
+            length -= leftLength - rightLength;
+            valid = start;
+        }
+        return changed ? new String(letters, 0, length) : word;
+    }
+
+    /**
+     * @return a new empty word that is kept in normal form, while letters are appended
+     */
+    public ReducedWord newWord() {
+        return new ReducedWord(this);
+    }
+
+    /**
+     * Writes the automaton in the format of the table, see the description of the class
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+        int size = characterStart + table.get(5);
+        ByteBuffer buffer = ByteBuffer.allocate(4 * size);
+        for (int i = 0; i < size; i++) buffer.putInt(table.get(i));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+    }
+
+    /*****************************
+     **** package methods ********
+     *****************************/
+
+    int initialState() {
+        return 0;
+    }
+
+    int nextState(int state, char c) {
+        int letter = c < LETTERS ? letterIndex[c] : otherLetterIndex.getOrDefault(c, -1);
+        return letter < 0 ? 0 : table.get(transitionStart + state * alphabetSize + letter);
+    }
+
+    /**
+     * @return the longest rule, whose left-hand side ends in the state, or -1
+     */
+    int matchingRule(int state) {
+        return table.get(matchStart + state);
+    }
+
+    int leftSideLength(int rule) {
+        return table.get(offsetStart + 2 * rule + 1) - table.get(offsetStart + 2 * rule);
+    }
+
+    int rightSideLength(int rule) {
+        return table.get(offsetStart + 2 * rule + 2) - table.get(offsetStart + 2 * rule + 1);
+    }
+
+    char rightSideChar(int rule, int index) {
+        return (char) table.get(characterStart + table.get(offsetStart + 2 * rule + 1) + index);
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private int rank(int rule) {
+        return table.get(rankStart + rule);
+    }
+
+    /*****************************
+     **** static methods **********
+     *****************************/
+
+    /**
+     * Maps the file of a saved automaton into memory. The mapping is read-only and stays valid, after the channel is closed.
+     *
+     * @param file
+     * @return the automaton, that reads the mapped file
+     * @throws IOException if the file cannot be read or has the wrong format
+     */
+    public static RewritingSystem load(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4L * HEADER || size % 4 != 0)
+                throw new IOException("Rewriting system file " + file + " is truncated");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            IntBuffer table = buffer.asIntBuffer();
+            if (table.get(0) != MAGIC || table.get(1) != VERSION)
+                throw new IOException("Unknown format of the rewriting system file " + file);
+            long expected = (long) HEADER + table.get(2) + (long) table.get(3) * (table.get(2) + 1) + 3L * table.get(4) + 1 + table.get(5);
+            if (4 * expected != size)
+                throw new IOException("Rewriting system file " + file + " is truncated");
+            return new RewritingSystem(table);
+        }
+    }
+
+    /**
+     * @param rulesFile
+     * @return the CRC32 of the content of the rules file
+     * @throws IOException
+     */
+    public static int checksum(File rulesFile) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(rulesFile.toPath()), crc)) {
+            byte[] buffer = new byte[1 << 16];
+            while (in.read(buffer) >= 0) ;
+        }
+        return (int) crc.getValue();
+    }
+
+    private static IntBuffer compile(Map<String, String> rules, int sourceChecksum) {
+        Map<Character, Integer> letterIndex = new HashMap<>();
+        List<Character> alphabet = new ArrayList<>();
+        List<String> left = new ArrayList<>();
+        List<String> right = new ArrayList<>();
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            String key = rule.getKey();
+            String value = rule.getValue() == null ? "" : rule.getValue();
+            if (key.isEmpty() || KnuthBendix.shortlex(value, key) >= 0)
+                continue;
+            for (char c : key.toCharArray()) {
+                if (letterIndex.putIfAbsent(c, alphabet.size()) == null) alphabet.add(c);
+            }
+            left.add(key);
+            right.add(value);
+        }
+        int alphabetSize = alphabet.size();
+        String[] lhs = left.toArray(new String[0]);
+        String[] rhs = right.toArray(new String[0]);
+
+        SimplifyingRuleComparator comparator = new SimplifyingRuleComparator();
+        Integer[] order = new Integer[lhs.length];
+        for (int r = 0; r < order.length; r++) order[r] = r;
+        Arrays.sort(order, (r1, r2) -> comparator.compare(lhs[r1], lhs[r2]));
+        int[] rank = new int[lhs.length];
+        for (int i = 0; i < order.length; i++) rank[order[i]] = i;
+
+        //trie
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(newState(alphabetSize));
+        terminal.add(-1);
+        for (int r = 0; r < lhs.length; r++) {
+            int state = 0;
+            for (char c : lhs[r].toCharArray()) {
+                int letter = letterIndex.get(c);
+                if (trie.get(state)[letter] < 0) {
+                    trie.get(state)[letter] = trie.size();
+                    trie.add(newState(alphabetSize));
+                    terminal.add(-1);
+                }
+                state = trie.get(state)[letter];
+            }
+            terminal.set(state, r);
+        }
+
+        //failure links in breadth first order
+        int size = trie.size();
+        int[][] transitions = trie.toArray(new int[0][]);
+        int[] match = new int[size];
+        int[] fail = new int[size];
+        Deque<Integer> queue = new ArrayDeque<>();
+        match[0] = -1;
+        for (int letter = 0; letter < alphabetSize; letter++) {
+            int child = transitions[0][letter];
+            if (child < 0) {
+                transitions[0][letter] = 0;
+            } else {
+                fail[child] = 0;
+                queue.offer(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            //the own rule is the longest one, otherwise the longest rule of the failure state
+            match[state] = terminal.get(state) >= 0 ? terminal.get(state) : match[fail[state]];
+            for (int letter = 0; letter < alphabetSize; letter++) {
+                int child = transitions[state][letter];
+                if (child < 0) {
+                    transitions[state][letter] = transitions[fail[state]][letter];
+                } else {
+                    fail[child] = transitions[fail[state]][letter];
+                    queue.offer(child);
+                }
+            }
+        }
+
+        //table
+        int characters = 0;
+        for (int r = 0; r < lhs.length; r++) characters += lhs[r].length() + rhs[r].length();
+        IntBuffer table = IntBuffer.allocate(HEADER + alphabetSize + size * (alphabetSize + 1) + 3 * lhs.length + 1 + characters);
+        table.put(MAGIC).put(VERSION).put(alphabetSize).put(size).put(lhs.length).put(characters).put(sourceChecksum);
+        for (char letter : alphabet) table.put(letter);
+        for (int[] state : transitions) table.put(state);
+        table.put(match);
+        table.put(rank);
+        int offset = 0;
+        for (int r = 0; r < lhs.length; r++) {
+            table.put(offset);
+            offset += lhs[r].length();
+            table.put(offset);
+            offset += rhs[r].length();
+        }
+        table.put(offset);
+        for (int r = 0; r < lhs.length; r++) {
+            for (char c : lhs[r].toCharArray()) table.put(c);
+            for (char c : rhs[r].toCharArray()) table.put(c);
+        }
+        table.flip();
+        return table;
+    }
+
+    private static int[] newState(int alphabetSize) {
+        int[] state = new int[alphabetSize];
+        Arrays.fill(state, -1);
+        return state;
+    }
+}
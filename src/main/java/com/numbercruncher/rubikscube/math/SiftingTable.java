@@ -0,0 +1,126 @@
+package com.numbercruncher.rubikscube.math;
+
+/**
+ * The class SiftingTable is an immutable snapshot of a stabilizer chain that is optimized for membership tests.
+ *
+ * For each level of the chain the base point and the images of the inverse coset representatives are stored
+ * as plain byte arrays. A permutation is sifted through the chain inside a scratch buffer, which is
+ * kept per thread. Therefore, the table can be shared by many threads without any allocation per test.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class SiftingTable {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    /**
+     * sift depth of permutations that are elements of the group
+     */
+    public static final int MEMBER = -1;
+
+    private final int degree;
+    private final byte[] basePoints;
+    //inverseRepresentatives[level][point] is the image of the inverse coset representative or null, if the point is not in the orbit
+    private final byte[][][] inverseRepresentatives;
+    private final ThreadLocal<byte[]> scratch;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public SiftingTable(StabilizerChain chain, int degree) {
+        this.degree = degree;
+
+        int levels = 0;
+        for (StabilizerChain level = chain; !level.isLast(); level = level.getStabilizer())
+            levels++;
+
+        this.basePoints = new byte[levels];
+        this.inverseRepresentatives = new byte[levels][][];
+
+        int l = 0;
+        for (StabilizerChain level = chain; !level.isLast(); level = level.getStabilizer()) {
+            this.basePoints[l] = level.getOrbit().get(0);
+            this.inverseRepresentatives[l] = new byte[degree][];
+            for (Byte point : level.getOrbit()) {
+                this.inverseRepresentatives[l][point] = level.getCosetRepresentative(point).inverse().getImage();
+            }
+            l++;
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new byte[degree]);
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public int getNumberOfLevels() {
+        return basePoints.length;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Sifts the permutation through the chain.
+     *
+     * @param perm the permutation to be checked
+     * @return {@link #MEMBER}, if the permutation is an element of the group,
+     * otherwise the level at which the sifting failed. The number of levels is returned,
+     * when a non-trivial permutation remains at the end of the chain.
+     */
+    public int siftDepth(Permutation perm) {
+        byte[] image = scratch.get();
+        if (!loadImage(perm, image))
+            return 0;
+
+        for (int level = 0; level < basePoints.length; level++) {
+            byte[] inverse = inverseRepresentatives[level][image[basePoints[level]]];
+            if (inverse == null)
+                return level;
+            //multiply with the inverse coset representative, this can be done in place
+            for (int i = 0; i < degree; i++)
+                image[i] = inverse[image[i]];
+        }
+
+        for (int i = 0; i < degree; i++)
+            if (image[i] != i)
+                return basePoints.length;
+        return MEMBER;
+    }
+
+    public boolean contains(Permutation perm) {
+        return siftDepth(perm) == MEMBER;
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    /**
+     * copy the image of the permutation into the buffer.
+     * Permutations of smaller degree are extended by fixed points.
+     *
+     * @return false, if the permutation moves a point outside the degree of the table
+     */
+    private boolean loadImage(Permutation perm, byte[] buffer) {
+        Set image = perm.getSetImage();
+        int permDegree = perm.getDegree();
+        for (int i = 0; i < degree; i++)
+            buffer[i] = i < permDegree ? image.get(i) : (byte) i;
+        for (int i = degree; i < permDegree; i++)
+            if (image.get(i) != i)
+                return false;
+        return true;
+    }
+}
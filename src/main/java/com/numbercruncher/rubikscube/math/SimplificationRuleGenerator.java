@@ -0,0 +1,221 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * The class SimplificationRuleGenerator finds simplification rules with a breadth-first search, that processes one layer of words after the other.
+ *
+ * The children of a layer are computed in parallel: their permutation images, their base images and the base images of their suffixes
+ * without the first letter. Afterward, the children are merged into the table of known base images in a fixed order, therefore the
+ * result doesn't depend on the number of threads. A child, whose base image is known with a shorter word, yields a rule, if its
+ * suffix is a shortest word as well, see {@link PermutationGroup#generateSimplificationRules(int, boolean)}.
+ *
+ * The words are stored as a tree of ids with the id of the parent and the last letter. The base images are kept in a
+ * {@link BaseImageTable}. The rules are written to the writer as soon as they are found.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class SimplificationRuleGenerator {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private final char[] letters;
+    private final byte[][] generatorImages;
+    //the inverse generator of each letter
+    private final byte[][] inverseImages;
+    private final byte[] base;
+    private final int degree;
+
+    //the word tree
+    private int[] parents = new int[1 << 10];
+    private byte[] lastLetters = new byte[1 << 10];
+    private byte[] firstLetters = new byte[1 << 10];
+    private int numberOfWords;
+    //the first id of each layer, the layer is the length of the word
+    private final List<Integer> layerStarts = new ArrayList<>();
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    /**
+     * @param generators the generators with their single letter words
+     * @param base a base of the group
+     */
+    public SimplificationRuleGenerator(List<GroupElement> generators, Base base) {
+        this.letters = new char[generators.size()];
+        this.generatorImages = new byte[generators.size()][];
+        this.inverseImages = new byte[generators.size()][];
+        for (int i = 0; i < generators.size(); i++) {
+            letters[i] = generators.get(i).getWord().charAt(0);
+            generatorImages[i] = generators.get(i).getPermutation().getImage();
+            inverseImages[i] = generators.get(i).getPermutation().inverse().getImage();
+        }
+        this.base = base.getBase();
+        this.degree = generatorImages[0].length;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * @param numberOfRules the search stops, when more rules have been found, -1 for no limit
+     * @param out the rules are written as lines src->target, can be null
+     * @param verbose
+     * @return the rules sorted by the {@link SimplifyingRuleComparator}
+     */
+    public TreeMap<String, String> generate(int numberOfRules, Writer out, boolean verbose) {
+        TreeMap<String, String> rules = new TreeMap<>(new SimplifyingRuleComparator());
+        BaseImageTable table = new BaseImageTable(base.length);
+
+        //the identity
+        byte[] identity = new byte[degree];
+        for (int x = 0; x < degree; x++) identity[x] = (byte) x;
+        numberOfWords = 0;
+        layerStarts.clear();
+        layerStarts.add(0);
+        addWord(-1, (byte) -1);
+        table.putIfAbsent(baseImage(identity), 0);
+
+        List<byte[]> layer = new ArrayList<>();
+        layer.add(identity);
+        int layerStart = 0;
+        int g = letters.length;
+
+        while (!layer.isEmpty()) {
+            int wordLength = layerStarts.size();
+            List<byte[]> currentLayer = layer;
+            int currentStart = layerStart;
+
+            //parallel: images of all children and lookups in the table, that is not changed in this phase
+            byte[][] childImages = new byte[currentLayer.size() * g][];
+            byte[][] childKeys = new byte[currentLayer.size() * g][];
+            int[] knownIds = new int[currentLayer.size() * g];
+            boolean[] shortestSuffix = new boolean[currentLayer.size() * g];
+            IntStream.range(0, currentLayer.size()).parallel().forEach(i -> {
+                byte[] image = currentLayer.get(i);
+                int first = wordLength == 1 ? -1 : firstLetters[currentStart + i];
+                for (int letter = 0; letter < g; letter++) {
+                    int c = i * g + letter;
+                    byte[] child = new byte[degree];
+                    byte[] generator = generatorImages[letter];
+                    for (int x = 0; x < degree; x++)
+                        child[x] = generator[image[x]];
+                    childImages[c] = child;
+                    childKeys[c] = baseImage(child);
+                    knownIds[c] = table.get(childKeys[c]);
+                    if (knownIds[c] != BaseImageTable.MISSING && first >= 0)
+                        shortestSuffix[c] = isShortestSuffix(child, first, wordLength, table);
+                    else
+                        shortestSuffix[c] = true;
+                }
+            });
+
+            //sequential: merge in a fixed order
+            List<byte[]> nextLayer = new ArrayList<>();
+            int nextStart = numberOfWords;
+            layerStarts.add(nextStart);
+            boolean limitReached = false;
+            for (int c = 0; c < childImages.length && !limitReached; c++) {
+                int parent = currentStart + c / g;
+                int id = knownIds[c];
+                if (id == BaseImageTable.MISSING) {
+                    id = table.putIfAbsent(childKeys[c], numberOfWords);
+                    if (id == BaseImageTable.MISSING) {
+                        addWord(parent, (byte) (c % g));
+                        nextLayer.add(childImages[c]);
+                        continue;
+                    }
+                }
+                //a rule, if the known word is shorter, i.e. it is from an earlier layer
+                if (id < nextStart && shortestSuffix[c]) {
+                    String src = word(parent) + letters[c % g];
+                    String target = word(id);
+                    rules.put(src, target);
+                    if (verbose) System.out.println(rules.size() + ": " + src + "->" + target);
+                    write(out, src, target);
+                    if (numberOfRules != -1 && rules.size() > numberOfRules)
+                        limitReached = true;
+                }
+            }
+            if (verbose) System.out.println("words of length " + wordLength + ": " + nextLayer.size() + ", rules: " + rules.size());
+            if (limitReached)
+                break;
+            layer = nextLayer;
+            layerStart = nextStart;
+        }
+        return rules;
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    /**
+     * The suffix without the first letter has the image first^{-1}*child. It is a shortest word, if no shorter word has the same base image.
+     * All words up to the length of the suffix are contained in the table.
+     */
+    private boolean isShortestSuffix(byte[] child, int first, int wordLength, BaseImageTable table) {
+        byte[] inverse = inverseImages[first];
+        byte[] key = new byte[base.length];
+        for (int k = 0; k < base.length; k++)
+            key[k] = child[inverse[base[k]]];
+        int id = table.get(key);
+        return id == BaseImageTable.MISSING || length(id) >= wordLength - 1;
+    }
+
+    private byte[] baseImage(byte[] image) {
+        byte[] key = new byte[base.length];
+        for (int k = 0; k < base.length; k++)
+            key[k] = image[base[k]];
+        return key;
+    }
+
+    private void addWord(int parent, byte letter) {
+        if (numberOfWords == parents.length) {
+            parents = Arrays.copyOf(parents, 2 * parents.length);
+            lastLetters = Arrays.copyOf(lastLetters, 2 * lastLetters.length);
+            firstLetters = Arrays.copyOf(firstLetters, 2 * firstLetters.length);
+        }
+        parents[numberOfWords] = parent;
+        lastLetters[numberOfWords] = letter;
+        firstLetters[numberOfWords] = parent <= 0 ? letter : firstLetters[parent];
+        numberOfWords++;
+    }
+
+    private int length(int id) {
+        int layer = 0;
+        while (layer + 1 < layerStarts.size() && layerStarts.get(layer + 1) <= id)
+            layer++;
+        return layer;
+    }
+
+    private String word(int id) {
+        StringBuilder word = new StringBuilder();
+        for (int current = id; current > 0; current = parents[current])
+            word.append(letters[lastLetters[current]]);
+        return word.reverse().toString();
+    }
+
+    private static void write(Writer out, String src, String target) {
+        if (out == null)
+            return;
+        try {
+            out.write(src + "->" + target + "\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
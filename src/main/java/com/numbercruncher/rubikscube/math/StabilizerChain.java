@@ -1,5 +1,6 @@
 package com.numbercruncher.rubikscube.math;
 
+import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -18,10 +19,24 @@ public class StabilizerChain {
     /*****************************
      **** Attribute **************
      *****************************/
+    private static final int MAGIC = 0x53544348;//"STCH"
+    private static final byte VERSION = 1;
+
+    /**
+     * Optional filter for the generators of each level.
+     *
+     * none: every generator that doesn't sift is stored
+     * sims: Sims' filter, at most one generator is stored for each pair (i,j) of
+     *       first moved point i and its image j. This limits the number of generators to n(n-1)/2
+     */
+    public static enum GeneratorFilter{none, sims};
+
     private List<Permutation> generators;
     private List<Byte> orbit;
     private Map<Byte,Permutation> cosetRepresentative;
     private StabilizerChain stabilizer;
+    //Sims table of the level, the key is i*degree+j
+    private Map<Integer,Permutation> simsTable;
     /*****************************
      **** Konstruktor*************
      *****************************/
@@ -101,10 +116,126 @@ public class StabilizerChain {
         return this.cosetRepresentative.size()==this.orbit.size();
     }
 
+    /**
+     * Sims' filter: the generator is reduced by the generators of this level that move the same first point to the same image.
+     * The product g*t^{-1} fixes the first moved point of g and all smaller points. This is repeated until a free
+     * slot in the Sims table is found. The reduced element generates the same group together with the old generators.
+     *
+     * The generator must not be an element of the group that is generated by the current generators of this level.
+     *
+     * @param g a new generator for this level
+     * @return the reduced generator, which has been registered in the Sims table
+     */
+    public Permutation filterGenerator(Permutation g){
+        if (this.simsTable==null)
+            this.simsTable=new HashMap<>();
+
+        byte[] image = g.getImage();
+        int i = firstMovedPoint(image);
+        while (i>=0) {
+            int key = i * image.length + image[i];
+            Permutation t = this.simsTable.get(key);
+            if (t == null) {
+                this.simsTable.put(key, g);
+                return g;
+            }
+            g = g.multiply(t.inverse());
+            image = g.getImage();
+            i = firstMovedPoint(image);
+        }
+        //only the identity arrives here, which cannot happen for new generators
+        return g;
+    }
+
+    /**
+     * Writes the stabilizer chain into a compact binary file.
+     * Each level is stored by its generators, its orbit and the coset representatives of the orbit points.
+     * All permutations are stored as byte images of the given degree.
+     *
+     * @param file the target file
+     * @param degree the degree of the permutations in the chain
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file, int degree) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeShort(degree);
+
+            StabilizerChain chain = this;
+            while (!chain.isLast()) {
+                out.writeBoolean(true);
+                out.writeShort(chain.getGenerators().size());
+                for (Permutation generator : chain.getGenerators()) {
+                    out.write(generator.getImage());
+                }
+                out.writeShort(chain.getOrbit().size());
+                for (Byte point : chain.getOrbit()) {
+                    out.writeByte(point);
+                    out.write(chain.getCosetRepresentative(point).getImage());
+                }
+                chain = chain.getStabilizer();
+            }
+            out.writeBoolean(false);
+        }
+    }
+
+    /*****************************
+     **** static methods  ********
+     *****************************/
+
+    /**
+     * Reads a stabilizer chain that was written with {@link #save(File, int)}.
+     *
+     * @param file the source file
+     * @return the stabilizer chain
+     * @throws IOException if the file cannot be read or has the wrong format
+     */
+    public static StabilizerChain load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION)
+                throw new IOException("Unknown format of the stabilizer chain file " + file);
+            int degree = in.readShort();
+
+            StabilizerChain first = new StabilizerChain();
+            StabilizerChain chain = first;
+            while (in.readBoolean()) {
+                int numberOfGenerators = in.readShort();
+                for (int i = 0; i < numberOfGenerators; i++) {
+                    chain.addGenerator(readPermutation(in, degree));
+                }
+                int orbitSize = in.readShort();
+                for (int i = 0; i < orbitSize; i++) {
+                    byte point = in.readByte();
+                    chain.addOrbitPoint(point);
+                    chain.addCosetRepresentative(point, readPermutation(in, degree));
+                }
+                chain.setStabilizer(new StabilizerChain());
+                chain = chain.getStabilizer();
+            }
+            return first;
+        }
+    }
+
 
     /*****************************
      **** private methods  *******
      *****************************/
+
+    private static int firstMovedPoint(byte[] image){
+        for (int i = 0; i < image.length; i++) {
+            if (image[i]!=i)
+                return i;
+        }
+        return -1;
+    }
+
+    private static Permutation readPermutation(DataInputStream in, int degree) throws IOException {
+        byte[] image = new byte[degree];
+        in.readFully(image);
+        return new Permutation(image);
+    }
+
     private String buildToString(StabilizerChain chain,int depth){
         String out="";
         String indent="";
@@ -0,0 +1,237 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.*;
+
+/**
+ * The class Symmetry describes a permutation sigma of the points, which maps the generators onto generators
+ * by conjugation. For the cube these are the 48 rotations and reflections of the cube.
+ *
+ * The conjugate sigma^{-1}*g*sigma of an element g is computed from the permutation and its word
+ * is obtained by relabelling the letters of the word of g. The word length is unchanged.
+ *
+ * The symmetries of a group can be found automatically. For each map of the generator labels, which preserves
+ * inverses and the commutation of the generators, a permutation sigma is constructed by propagating
+ * sigma(X(q)) = Y(sigma(q)) through each orbit of the group.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class Symmetry {
+
+    /*****************************
+     **** Attributes **************
+     *****************************/
+
+    private final Permutation sigma;
+    private final Permutation sigmaInverse;
+    private final Map<Character,Character> letterMap;
+
+    /*****************************
+     **** Constructor *************
+     *****************************/
+
+    /**
+     * @param sigma the permutation of the points
+     * @param letterMap the image of each letter X is the letter of sigma^{-1}*X*sigma
+     */
+    public Symmetry(Permutation sigma, Map<Character,Character> letterMap) {
+        this.sigma = sigma;
+        this.sigmaInverse = sigma.inverse();
+        this.letterMap = letterMap;
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    public Permutation getPermutation() {
+        return sigma;
+    }
+
+    public Map<Character, Character> getLetterMap() {
+        return letterMap;
+    }
+
+    public boolean isIdentity() {
+        return sigma.isIdentity();
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * the conjugate sigma^{-1}*g*sigma with the relabelled word of g
+     *
+     * @param g
+     * @return
+     */
+    public GroupElement conjugate(GroupElement g) {
+        Permutation permutation = sigmaInverse.multiply(g.getPermutation()).multiply(sigma);
+        String word = g.getWord();
+        StringBuilder relabelled = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            relabelled.append(letterMap.get(word.charAt(i)));
+        }
+        return new GroupElement(permutation, relabelled.toString());
+    }
+
+    /*****************************
+     **** static methods **********
+     *****************************/
+
+    /**
+     * Finds all symmetries of the group including the identity.
+     *
+     * @param group
+     * @return
+     */
+    public static List<Symmetry> findSymmetries(PermutationGroup group) {
+        List<GroupElement> generators = group.getGroupElementGenerators();
+        int degree = group.getDegree();
+
+        //all letters with their images, the first half are the generators, the second half their inverses
+        int n = generators.size();
+        char[] letters = new char[n];
+        byte[][] images = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            letters[i] = generators.get(i).getWord().charAt(0);
+            images[i] = generators.get(i).getPermutation().getImage();
+        }
+        int k = n / 2;
+
+        //commutation table
+        boolean[][] commute = new boolean[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                commute[i][j] = Arrays.equals(
+                        generators.get(i).getPermutation().multiply(generators.get(j).getPermutation()).getImage(),
+                        generators.get(j).getPermutation().multiply(generators.get(i).getPermutation()).getImage());
+
+        List<List<Byte>> components = orbits(images, k, degree);
+
+        List<Symmetry> symmetries = new ArrayList<>();
+        int[] labelMap = new int[k];
+        enumerateLabelMaps(0, labelMap, new boolean[n], commute, k, n, () -> {
+            byte[] sigma = new byte[degree];
+            Arrays.fill(sigma, (byte) -1);
+            if (propagate(0, components, sigma, new boolean[degree], images, labelMap, k)) {
+                Map<Character, Character> letterMap = new HashMap<>();
+                for (int i = 0; i < k; i++) {
+                    letterMap.put(letters[i], letters[labelMap[i]]);
+                    letterMap.put(letters[i + k], letters[inverseIndex(labelMap[i], k)]);
+                }
+                symmetries.add(new Symmetry(new Permutation(sigma), letterMap));
+            }
+        });
+        return symmetries;
+    }
+
+    /*****************************
+     **** private methods *********
+     *****************************/
+
+    private static int inverseIndex(int index, int k) {
+        return index < k ? index + k : index - k;
+    }
+
+    /**
+     * backtracking over the images of the generators, that preserve the commutation relations
+     */
+    private static void enumerateLabelMaps(int i, int[] labelMap, boolean[] used, boolean[][] commute, int k, int n, Runnable action) {
+        if (i == k) {
+            action.run();
+            return;
+        }
+        for (int y = 0; y < n; y++) {
+            if (used[y])
+                continue;
+            boolean compatible = true;
+            for (int j = 0; j < i && compatible; j++) {
+                compatible = commute[i][j] == commute[y][labelMap[j]];
+            }
+            if (!compatible)
+                continue;
+
+            labelMap[i] = y;
+            used[y] = true;
+            used[inverseIndex(y, k)] = true;
+            enumerateLabelMaps(i + 1, labelMap, used, commute, k, n, action);
+            used[y] = false;
+            used[inverseIndex(y, k)] = false;
+        }
+    }
+
+    /**
+     * backtracking over the images of the first point of each component.
+     * The remaining points of the component are fixed by sigma(X(q)) = Y(sigma(q))
+     */
+    private static boolean propagate(int c, List<List<Byte>> components, byte[] sigma, boolean[] used, byte[][] images, int[] labelMap, int k) {
+        if (c == components.size())
+            return true;
+
+        List<Byte> component = components.get(c);
+        byte start = component.get(0);
+        for (int p = 0; p < sigma.length; p++) {
+            if (used[p])
+                continue;
+
+            List<Byte> assigned = new ArrayList<>();
+            boolean consistent = assign(start, (byte) p, sigma, used, assigned);
+            for (int i = 0; consistent && i < assigned.size(); i++) {
+                byte q = assigned.get(i);
+                for (int x = 0; consistent && x < k; x++) {
+                    byte target = images[x][q];
+                    byte image = images[labelMap[x]][sigma[q]];
+                    if (sigma[target] == -1)
+                        consistent = assign(target, image, sigma, used, assigned);
+                    else
+                        consistent = sigma[target] == image;
+                }
+            }
+
+            if (consistent && propagate(c + 1, components, sigma, used, images, labelMap, k))
+                return true;
+
+            //undo
+            for (Byte q : assigned) {
+                used[sigma[q]] = false;
+                sigma[q] = -1;
+            }
+        }
+        return false;
+    }
+
+    private static boolean assign(byte q, byte p, byte[] sigma, boolean[] used, List<Byte> assigned) {
+        if (used[p])
+            return false;
+        sigma[q] = p;
+        used[p] = true;
+        assigned.add(q);
+        return true;
+    }
+
+    private static List<List<Byte>> orbits(byte[][] images, int k, int degree) {
+        List<List<Byte>> components = new ArrayList<>();
+        boolean[] visited = new boolean[degree];
+        for (int start = 0; start < degree; start++) {
+            if (visited[start])
+                continue;
+            List<Byte> component = new ArrayList<>();
+            component.add((byte) start);
+            visited[start] = true;
+            for (int i = 0; i < component.size(); i++) {
+                for (int x = 0; x < k; x++) {
+                    byte image = images[x][component.get(i)];
+                    if (!visited[image]) {
+                        visited[image] = true;
+                        component.add(image);
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+}
@@ -0,0 +1,360 @@
+package com.numbercruncher.rubikscube.math;
+
+import com.numbercruncher.rubikscube.logger.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * The class TrainingJournal records the progress of a Minkwitz chain training in an append-only binary file.
+ *
+ * Every change of a coset representative is stored as a record (level, point, word), the words are encoded in UTF-8. Additionally, the number of
+ * processed training elements is recorded regularly. The records are written by a background thread, the training loop
+ * only puts them into a queue.
+ *
+ * The writer thread keeps a replica of the representatives. After a fixed number of records the replica is written
+ * into a snapshot and the journal is truncated. After a crash, the training state is recovered from the snapshot
+ * and the records of the journal.
+ *
+ * The journal and the snapshot start with a fingerprint of the generators and of the orbits of the chain, see {@link #fingerprint(List, MinkwitzChain)}.
+ * Files of a different group or base, that were written under the same name, are rejected and the journal is started anew.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class TrainingJournal implements Closeable {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int JOURNAL_MAGIC = 0x4d4a524e;//"MJRN"
+    private static final int SNAPSHOT_MAGIC = 0x4d534e50;//"MSNP"
+    private static final byte VERSION = 2;
+
+    private static final byte UPDATE = 1;
+    private static final byte PROGRESS = 2;
+
+    private static final int DEFAULT_COMPACTION_INTERVAL = 100000;
+
+    private final File journalFile;
+    private final File snapshotFile;
+    private final int compactionInterval;
+    //fingerprint of the group and the base of the trained chain
+    private final long fingerprint;
+    //true, if the existing journal belongs to the chain and is continued
+    private boolean append;
+
+    private final BlockingQueue<Record> queue;
+    //state of the chain, that is known to the writer thread, the key is level*256+point
+    private final TreeMap<Integer,String> replica;
+    private int progress = -1;
+    private Thread writer;
+    private volatile IOException failure;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    /**
+     * @param directory
+     * @param name
+     * @param fingerprint the fingerprint of the trained chain, see {@link #fingerprint(List, MinkwitzChain)}
+     * @param compactionInterval the number of records, after which a snapshot is written
+     */
+    public TrainingJournal(File directory, String name, long fingerprint, int compactionInterval) {
+        this.journalFile = new File(directory, name + ".journal");
+        this.snapshotFile = new File(directory, name + ".snapshot");
+        this.fingerprint = fingerprint;
+        this.compactionInterval = compactionInterval;
+        this.queue = new LinkedBlockingQueue<>(1 << 16);
+        this.replica = new TreeMap<>();
+    }
+
+    public TrainingJournal(File directory, String name, long fingerprint) {
+        this(directory, name, fingerprint, DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * Recovers the state of an interrupted training from the snapshot and the journal.
+     * A snapshot or a journal with a different fingerprint is ignored.
+     *
+     * @param minkwitzChain the chain is updated with the recovered representatives
+     * @param evaluator computes the group element of a word
+     * @return the number of the last processed training element or -1, if there is nothing to recover
+     */
+    public int replay(MinkwitzChain minkwitzChain, Function<String, GroupElement> evaluator) {
+        if (snapshotFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+                if (in.readInt() != SNAPSHOT_MAGIC || in.readByte() != VERSION)
+                    throw new IOException("Unknown format of the snapshot " + snapshotFile);
+                if (in.readLong() != fingerprint)
+                    throw new IOException("The snapshot " + snapshotFile + " belongs to a different group or base");
+                progress = in.readInt();
+                int size = in.readInt();
+                for (int i = 0; i < size; i++) {
+                    int level = in.readByte();
+                    int point = in.readByte();
+                    replica.put(level * 256 + point, readWord(in));
+                }
+            } catch (IOException e) {
+                Logger.logging(Logger.Level.warning, "Could not read the snapshot " + snapshotFile + "\n" + e.getMessage() + "\n");
+            }
+        }
+
+        if (journalFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+                if (in.readInt() != JOURNAL_MAGIC || in.readByte() != VERSION)
+                    throw new IOException("Unknown format of the journal " + journalFile);
+                if (in.readLong() != fingerprint)
+                    throw new IOException("The journal " + journalFile + " belongs to a different group or base");
+                append = true;
+                while (true) {
+                    byte type = in.readByte();
+                    if (type == UPDATE) {
+                        int level = in.readByte();
+                        int point = in.readByte();
+                        replica.put(level * 256 + point, readWord(in));
+                    } else if (type == PROGRESS) {
+                        progress = in.readInt();
+                    } else {
+                        throw new IOException("Unknown record in the journal " + journalFile);
+                    }
+                }
+            } catch (EOFException e) {
+                //end of the journal, a record that was only written partially is dropped
+            } catch (IOException e) {
+                Logger.logging(Logger.Level.warning, "Could not read the journal " + journalFile + "\n" + e.getMessage() + "\n");
+            }
+        }
+
+        if (!replica.isEmpty()) {
+            List<MinkwitzChain> levels = new ArrayList<>();
+            for (MinkwitzChain level = minkwitzChain; !level.isLast(); level = level.getStabilizerChain())
+                levels.add(level);
+            for (Map.Entry<Integer, String> entry : replica.entrySet()) {
+                int level = entry.getKey() / 256;
+                byte point = (byte) (entry.getKey() % 256);
+                levels.get(level).addCosetRepresentative(point, evaluator.apply(entry.getValue()));
+            }
+            Logger.logging(Logger.Level.info, "Recovered " + replica.size() + " representatives after " + progress + " training elements from " + journalFile + "\n");
+        }
+        return progress;
+    }
+
+    /**
+     * starts the writer thread, a replayed journal is continued, otherwise the journal is started anew
+     */
+    public void start() {
+        writer = new Thread(this::write, "training-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * records the change of a coset representative, the word is only decoded by the writer thread
+     */
+    public void update(int level, byte point, CharSequence word) {
+        put(new Record(UPDATE, level, point, word));
+    }
+
+    /**
+     * records the number of the last processed training element
+     */
+    public void progress(int processed) {
+        put(new Record(PROGRESS, processed, (byte) 0, null));
+    }
+
+    /**
+     * The pending records are written and the writer thread is stopped.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            put(Record.END);
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * removes the journal and the snapshot, when the training has been completed
+     */
+    public void delete() {
+        journalFile.delete();
+        snapshotFile.delete();
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private void put(Record record) {
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        DataOutputStream out = null;
+        try {
+            out = openJournal(append);
+            int count = 0;
+            while (true) {
+                Record record = queue.take();
+                if (record == Record.END)
+                    break;
+
+                if (record.type == UPDATE) {
+                    out.writeByte(UPDATE);
+                    out.writeByte(record.value);
+                    out.writeByte(record.point);
+                    String word = record.word.toString();
+                    writeWord(out, word);
+                    replica.put(record.value * 256 + record.point, word);
+                } else {
+                    out.writeByte(PROGRESS);
+                    out.writeInt(record.value);
+                    progress = record.value;
+                }
+
+                if (++count >= compactionInterval) {
+                    out.close();
+                    compact();
+                    out = openJournal(false);
+                    count = 0;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            Logger.logging(Logger.Level.error, "Training journal " + journalFile + " failed\n" + e.getMessage() + "\n");
+            //keep the training loop going, the remaining records are dropped
+            try {
+                while (queue.take() != Record.END) ;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private DataOutputStream openJournal(boolean append) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, append)));
+        if (!append) {
+            out.writeInt(JOURNAL_MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(fingerprint);
+        }
+        return out;
+    }
+
+    /**
+     * The replica is written into a new snapshot, which replaces the old one. Afterwards, the journal can be truncated.
+     */
+    private void compact() throws IOException {
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(progress);
+            out.writeInt(replica.size());
+            for (Map.Entry<Integer, String> entry : replica.entrySet()) {
+                out.writeByte(entry.getKey() / 256);
+                out.writeByte(entry.getKey() % 256);
+                writeWord(out, entry.getValue());
+            }
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*****************************
+     **** static methods **********
+     *****************************/
+
+    /**
+     * The recorded words only describe the same representatives for the same generators and the same levels.
+     *
+     * @param generators the generators of the group with their words
+     * @param minkwitzChain the trained chain
+     * @return the CRC32 of the words and images of the generators and of the orbits of the levels of the chain
+     */
+    public static long fingerprint(List<GroupElement> generators, MinkwitzChain minkwitzChain) {
+        CRC32 crc = new CRC32();
+        for (GroupElement generator : generators) {
+            crc.update(generator.getWord().getBytes(StandardCharsets.UTF_8));
+            crc.update(generator.getPermutation().getImage());
+        }
+        for (MinkwitzChain level = minkwitzChain; !level.isLast(); level = level.getStabilizerChain()) {
+            crc.update(level.getOrbit().size());
+            for (Byte point : level.getOrbit())
+                crc.update(point);
+        }
+        return crc.getValue();
+    }
+
+    private static void writeWord(DataOutputStream out, String word) throws IOException {
+        byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readWord(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*****************************
+     **** inner classes  *********
+     *****************************/
+
+    private static class Record {
+        private static final Record END = new Record((byte) 0, 0, (byte) 0, null);
+
+        private final byte type;
+        //level of an update or number of processed elements
+        private final int value;
+        private final byte point;
+        private final CharSequence word;
+
+        private Record(byte type, int value, byte point, CharSequence word) {
+            this.type = type;
+            this.value = value;
+            this.point = point;
+            this.word = word;
+        }
+    }
+}
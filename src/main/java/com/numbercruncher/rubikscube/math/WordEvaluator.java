@@ -0,0 +1,200 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The class WordEvaluator computes the permutations of words of generators.
+ *
+ * The letters are mapped to the generators by an array for the ASCII range and by a map for other letters like greek labels.
+ * The images of the generators are composed in place in a buffer, that is kept per thread. No intermediate permutations are created.
+ *
+ * Optionally the products of the prefixes are cached in a trie of the recently evaluated words, one node per prefix.
+ * A word, whose prefix has been evaluated before, only costs the composition of the remaining letters. This pays off for
+ * lists of words in breadth-first order, where every word extends a word of the previous layer. When the trie is full,
+ * it is cleared. The trie is kept per thread as well, therefore the evaluator can be shared by many threads.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class WordEvaluator {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final int LETTERS = 128;
+
+    private final int[] letterIndex = new int[LETTERS];
+    //generators with letters outside the ASCII range
+    private final Map<Character, Integer> otherLetterIndex = new HashMap<>();
+    private final byte[][] generatorImages;
+    //numbering of the letters of the evaluated elements
+    private final PackedWord.Alphabet alphabet;
+    private final int degree;
+    //maximal number of nodes of the trie, 0 without cache
+    private final int cacheSize;
+    private final ThreadLocal<Cache> caches;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public WordEvaluator(List<GroupElement> generators) {
+        this(generators, 0);
+    }
+
+    /**
+     * @param generators the generators with their single letter words
+     * @param cacheSize the maximal number of cached prefix products per thread, 0 without cache
+     */
+    public WordEvaluator(List<GroupElement> generators, int cacheSize) {
+        Arrays.fill(letterIndex, -1);
+        this.generatorImages = new byte[generators.size()][];
+        StringBuilder letters = new StringBuilder(generators.size());
+        for (int i = 0; i < generators.size(); i++) {
+            char letter = generators.get(i).getWord().charAt(0);
+            letters.append(letter);
+            if (letter < LETTERS)
+                letterIndex[letter] = i;
+            else
+                otherLetterIndex.put(letter, i);
+            generatorImages[i] = generators.get(i).getPermutation().getImage();
+        }
+        this.alphabet = PackedWord.Alphabet.of(letters);
+        this.degree = generatorImages.length == 0 ? 0 : generatorImages[0].length;
+        this.cacheSize = cacheSize;
+        this.caches = ThreadLocal.withInitial(() -> new Cache(generatorImages.length, degree, Math.max(1, cacheSize)));
+    }
+
+    /*****************************
+     **** Getter    **************
+     *****************************/
+
+    public int getDegree() {
+        return degree;
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    /**
+     * @param word
+     * @return the image of the product of the letters, the letters are applied from left to right
+     * @throws IllegalArgumentException if a letter is not a generator
+     */
+    public byte[] evaluate(CharSequence word) {
+        return evaluate(word, false);
+    }
+
+    /**
+     * @param word
+     * @param skipUnknownLetters if true, letters that are no generators are ignored, otherwise an exception is thrown
+     * @return the image of the product of the letters, the letters are applied from left to right
+     */
+    public byte[] evaluate(CharSequence word, boolean skipUnknownLetters) {
+        Cache cache = caches.get();
+        byte[] buffer = cache.buffer;
+        int length = word.length();
+        int node = 0;
+        int i = 0;
+
+        if (cacheSize > 0) {
+            if (cache.size >= cacheSize)
+                cache.clear();
+            //longest cached prefix
+            for (; i < length; i++) {
+                int letter = index(word.charAt(i), skipUnknownLetters);
+                if (letter < 0)
+                    continue;
+                int child = cache.children[node * generatorImages.length + letter];
+                if (child == 0)
+                    break;
+                node = child;
+            }
+        }
+        System.arraycopy(cache.images, node * degree, buffer, 0, degree);
+
+        for (; i < length; i++) {
+            int letter = index(word.charAt(i), skipUnknownLetters);
+            if (letter < 0)
+                continue;
+            byte[] generator = generatorImages[letter];
+            for (int x = 0; x < degree; x++)
+                buffer[x] = generator[buffer[x]];
+            if (cacheSize > 0 && cache.size < cacheSize)
+                node = cache.add(node, letter, buffer);
+        }
+        return buffer.clone();
+    }
+
+    public Permutation toPermutation(CharSequence word) {
+        return new Permutation(evaluate(word));
+    }
+
+    public GroupElement toElement(String word) {
+        return new GroupElement(toPermutation(word), PackedWord.of(word, alphabet));
+    }
+
+    /**
+     * @param word
+     * @return the group element of the word, letters that are no generators are removed from the word
+     */
+    public GroupElement toElementSkippingUnknownLetters(String word) {
+        StringBuilder letters = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++)
+            if (index(word.charAt(i), true) >= 0)
+                letters.append(word.charAt(i));
+        return new GroupElement(new Permutation(evaluate(word, true)), PackedWord.of(letters.toString(), alphabet));
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private int index(char letter, boolean skipUnknownLetters) {
+        int index = letter < LETTERS ? letterIndex[letter] : otherLetterIndex.getOrDefault(letter, -1);
+        if (index < 0 && !skipUnknownLetters)
+            throw new IllegalArgumentException("Letter " + letter + " is not a generator");
+        return index;
+    }
+
+    /**
+     * The buffer and the trie of the prefix products of one thread. The root is the identity, 0 marks a missing child.
+     */
+    private static final class Cache {
+        private final byte[] buffer;
+        private final int numberOfGenerators;
+        private final int degree;
+        private final int[] children;
+        private final byte[] images;
+        private int size;
+
+        private Cache(int numberOfGenerators, int degree, int capacity) {
+            this.buffer = new byte[degree];
+            this.numberOfGenerators = numberOfGenerators;
+            this.degree = degree;
+            this.children = new int[capacity * numberOfGenerators];
+            this.images = new byte[capacity * degree];
+            for (int x = 0; x < degree; x++)
+                images[x] = (byte) x;
+            this.size = 1;
+        }
+
+        private int add(int parent, int letter, byte[] image) {
+            int node = size++;
+            children[parent * numberOfGenerators + letter] = node;
+            System.arraycopy(image, 0, images, node * degree, degree);
+            return node;
+        }
+
+        private void clear() {
+            Arrays.fill(children, 0, size * numberOfGenerators, 0);
+            size = 1;
+        }
+    }
+}
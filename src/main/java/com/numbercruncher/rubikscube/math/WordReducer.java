@@ -0,0 +1,140 @@
+package com.numbercruncher.rubikscube.math;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.numbercruncher.rubikscube.utils.StringUtils.toggleCase;
+
+/**
+ * The class WordReducer cancels a generator against its inverse and reduces powers of a generator by its order.
+ *
+ * The word is read once from left to right. The stack holds runs of the same generator together with their exponent
+ * modulo the order of the generator, a run with exponent zero is removed. Each run is written with the shorter one
+ * of x^e and X^(n-e), for a tie the generator itself is used. Letters that are no generators are kept as they are.
+ * The letters of the ASCII range are looked up in arrays, other letters like greek labels in a map.
+ *
+ * The rules are derived from the generators, therefore no rule has to be written by hand.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class WordReducer {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    //index of the generator of a letter or -1
+    private final int[] generatorIndex = new int[128];
+    //+1 for the generator, -1 for its inverse
+    private final int[] exponent = new int[128];
+    //the same for letters outside the ASCII range
+    private final Map<Character, Integer> otherGeneratorIndex = new HashMap<>();
+    private final Map<Character, Integer> otherExponent = new HashMap<>();
+    private final int[] orders;
+    private final char[] generatorLetters;
+    private final char[] inverseLetters;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    /**
+     * @param labels the single letter labels of the generators, the inverse is labelled by the toggled case
+     * @param generators the permutations of the generators
+     */
+    public WordReducer(List<String> labels, List<Permutation> generators) {
+        Arrays.fill(generatorIndex, -1);
+        this.orders = new int[labels.size()];
+        this.generatorLetters = new char[labels.size()];
+        this.inverseLetters = new char[labels.size()];
+        for (int i = 0; i < labels.size(); i++) {
+            char letter = labels.get(i).charAt(0);
+            char inverse = toggleCase(labels.get(i)).charAt(0);
+            generatorLetters[i] = letter;
+            inverseLetters[i] = inverse;
+            orders[i] = generators.get(i).order();
+            putLetter(letter, i, 1);
+            if (inverse != letter)
+                putLetter(inverse, i, -1);
+        }
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    public String reduce(String word) {
+        int length = word.length();
+        if (length == 0)
+            return word;
+
+        //the generator of the run or -1 - letter for letters that are no generators
+        int[] runs = new int[length];
+        int[] powers = new int[length];
+        int top = 0;
+        for (int i = 0; i < length; i++) {
+            char c = word.charAt(i);
+            int generator = generatorOf(c);
+            if (generator < 0) {
+                runs[top] = -1 - c;
+                powers[top++] = 1;
+                continue;
+            }
+            int order = orders[generator];
+            if (top > 0 && runs[top - 1] == generator) {
+                int power = Math.floorMod(powers[top - 1] + exponentOf(c), order);
+                if (power == 0)
+                    top--;
+                else
+                    powers[top - 1] = power;
+            } else if (order > 1) {
+                runs[top] = generator;
+                powers[top++] = Math.floorMod(exponentOf(c), order);
+            }
+        }
+
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < top; i++) {
+            if (runs[i] < 0) {
+                out.append((char) (-1 - runs[i]));
+                continue;
+            }
+            int generator = runs[i];
+            int power = powers[i];
+            int inversePower = orders[generator] - power;
+            if (power <= inversePower)
+                out.append(String.valueOf(generatorLetters[generator]).repeat(power));
+            else
+                out.append(String.valueOf(inverseLetters[generator]).repeat(inversePower));
+        }
+        return out.toString();
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private void putLetter(char letter, int generator, int sign) {
+        if (letter < generatorIndex.length) {
+            generatorIndex[letter] = generator;
+            exponent[letter] = sign;
+        } else {
+            otherGeneratorIndex.put(letter, generator);
+            otherExponent.put(letter, sign);
+        }
+    }
+
+    private int generatorOf(char letter) {
+        if (letter < generatorIndex.length)
+            return generatorIndex[letter];
+        return otherGeneratorIndex.getOrDefault(letter, -1);
+    }
+
+    private int exponentOf(char letter) {
+        return letter < exponent.length ? exponent[letter] : otherExponent.get(letter);
+    }
+}
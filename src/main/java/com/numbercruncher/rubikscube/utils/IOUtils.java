@@ -1,5 +1,6 @@
 package com.numbercruncher.rubikscube.utils;
 
+import java.io.File;
 import java.net.URL;
 
 /**
@@ -21,4 +22,26 @@ public class IOUtils {
         ClassLoader loader = Thread.currentThread().getContextClassLoader();
         return loader.getResource(subDir);
     }
+
+    /**
+     * Returns the resource directory with the given name. In contrast to {@link #getResourcePath(String)}
+     * the directory is created next to the other resource directories, when it doesn't exist yet.
+     * This is used for data that is generated at runtime, e.g. caches.
+     *
+     * @param subDir the name of the resource directory
+     * @return the directory or null, if no resource root could be found
+     */
+    public static File getResourceDirectory(String subDir){
+        URL dirURL = getResourcePath(subDir);
+        if (dirURL!=null)
+            return new File(dirURL.getFile());
+
+        URL rootURL = getResourcePath("");
+        if (rootURL==null)
+            return null;
+        File dir = new File(rootURL.getFile(),subDir);
+        if (!dir.exists() && !dir.mkdirs())
+            return null;
+        return dir;
+    }
 }
@@ -0,0 +1,127 @@
+package com.numbercruncher.rubikscube.xml;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * The class ChainXMLWriter streams the XML document of a Minkwitz chain into a file.
+ *
+ * The elements are written directly into a buffered writer, the document is never held in memory.
+ * Every tag and every text is written on its own line and indented by tabs, such that the files
+ * have the same layout as before and can be read by the MinkwitzParser and the ExtendedMinkwitzParser.
+ *
+ * @author NumberCruncher
+ * @since 2026-10-19
+ * @version 2026-10-19
+ */
+public class ChainXMLWriter implements Closeable {
+
+    /*****************************
+     **** Attribute **************
+     *****************************/
+
+    private static final char[] TABS = new char[64];
+    static {
+        Arrays.fill(TABS, '\t');
+    }
+    private static final char[] NEWLINE = {'\n'};
+
+    private final BufferedWriter out;
+    private final XMLStreamWriter writer;
+
+    /*****************************
+     **** Konstruktor*************
+     *****************************/
+
+    public ChainXMLWriter(File file) throws IOException {
+        this.out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8);
+        try {
+            this.writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out);
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeCharacters(NEWLINE, 0, 1);
+        } catch (XMLStreamException e) {
+            out.close();
+            throw new IOException(e);
+        }
+    }
+
+    /*****************************
+     **** public methods *********
+     *****************************/
+
+    public void startTag(int depth, String tag) throws IOException {
+        try {
+            indent(depth);
+            writer.writeStartElement(tag);
+            writer.writeCharacters(NEWLINE, 0, 1);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void startTag(int depth, String tag, String attribute, String value) throws IOException {
+        try {
+            indent(depth);
+            writer.writeStartElement(tag);
+            writer.writeAttribute(attribute, value);
+            writer.writeCharacters(NEWLINE, 0, 1);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * closes the last open tag
+     */
+    public void endTag(int depth) throws IOException {
+        try {
+            indent(depth);
+            writer.writeEndElement();
+            writer.writeCharacters(NEWLINE, 0, 1);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    public void text(int depth, String text) throws IOException {
+        try {
+            indent(depth);
+            writer.writeCharacters(text);
+            writer.writeCharacters(NEWLINE, 0, 1);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * The document is finished and the file is closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            out.close();
+        }
+    }
+
+    /*****************************
+     **** private methods  *******
+     *****************************/
+
+    private void indent(int depth) throws XMLStreamException {
+        for (int n = depth; n > 0; n -= TABS.length)
+            writer.writeCharacters(TABS, 0, Math.min(n, TABS.length));
+    }
+}
@@ -11,6 +11,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -86,18 +87,39 @@ class ExtendedRepresentativeContainer{
     Byte orbitPoint;
     Permutation permutation;
     TreeSet<GroupElement> groupElements;
+    List<String> words;
 
     public ExtendedRepresentativeContainer(Byte orbitPoint) {
         this.orbitPoint = orbitPoint;
         groupElements = new TreeSet<>();
     }
 
+    /**
+     * The words are only collected. The group elements are created in {@link #evaluate(Function)}.
+     */
+    public ExtendedRepresentativeContainer(Byte orbitPoint, boolean deferred) {
+        this(orbitPoint);
+        if (deferred) words = new ArrayList<>();
+    }
+
     public void setPermutation(Permutation permutation){
         this.permutation=permutation;
     }
 
     public void setWord(String word){
-        groupElements.add(new GroupElement(this.permutation,word));
+        if (words!=null)
+            words.add(word);
+        else
+            groupElements.add(new GroupElement(this.permutation,word));
+    }
+
+    /**
+     * computes the permutations of the collected words
+     */
+    public void evaluate(Function<String,Permutation> evaluator){
+        for (String word : words)
+            groupElements.add(new GroupElement(evaluator.apply(word),word));
+        words=null;
     }
 
     public TreeSet<GroupElement> getGroupElements(){
@@ -125,13 +147,32 @@ public class ExtendedMinkwitzParser extends DefaultHandler {
 
     private final String name;
     private boolean verbose;
+    private final Function<String,Permutation> evaluator;
+    private final List<ExtendedRepresentativeContainer> deferred = new ArrayList<>();
 
     public ExtendedMinkwitzParser(String name, boolean verbose) {
+        this(name,verbose,null);
+    }
+
+    /**
+     * With an evaluator the permutations are not parsed. They are computed from the words in parallel,
+     * after the whole file is read.
+     *
+     * @param name the name of the chain
+     * @param verbose
+     * @param evaluator computes the permutation of a word
+     */
+    public ExtendedMinkwitzParser(String name, boolean verbose, Function<String,Permutation> evaluator) {
         this.name=name;
         this.verbose =verbose;
+        this.evaluator=evaluator;
     }
 
     public ExtendedMinkwitzChain getExtendedMinkwitzChain(){
+        if (!deferred.isEmpty()) {
+            deferred.parallelStream().forEach(container -> container.evaluate(evaluator));
+            deferred.clear();
+        }
         buildChain();
         return this.chain;
     }
@@ -180,7 +221,9 @@ public class ExtendedMinkwitzParser extends DefaultHandler {
             case representative:
                 Byte orbitPoint = atts.getValue("of") == null ? 0 : Byte.parseByte(atts.getValue("of"));
                 if (verbose) Logger.logging(Logger.Level.info,"Reading orbit point "+orbitPoint);
-                this.objectStack.push(new ExtendedRepresentativeContainer(orbitPoint));
+                ExtendedRepresentativeContainer container = new ExtendedRepresentativeContainer(orbitPoint, evaluator!=null);
+                if (evaluator!=null) deferred.add(container);
+                this.objectStack.push(container);
                 break;
             case permutation, word:
                 this.objectStack.push(new StringBuilder());
@@ -233,6 +276,7 @@ public class ExtendedMinkwitzParser extends DefaultHandler {
 //                if (verbose) Logger.logging(Logger.Level.info,"Adding representative "+rep);
                 break;
             case permutation:
+                if (evaluator!=null) break;
                 Permutation perm = Permutation.parse(((StringBuilder) obj).toString());
                 if (parentObj!=null) ((ExtendedRepresentativeContainer) parentObj).setPermutation(perm);
                 break;
@@ -248,10 +292,12 @@ public class ExtendedMinkwitzParser extends DefaultHandler {
      */
     public void characters(char ch[], int start, int length) {
 
+        ExtendedMinkwitzChain.Tag elementTag =ExtendedMinkwitzChain.Tag.valueOf(this.currentElement());
+        if (elementTag==ExtendedMinkwitzChain.Tag.permutation && evaluator!=null) return; // computed from the word
+
         String value = new String(ch, start, length).trim();
         if(value.isEmpty()) return; // ignore white space
 
-        ExtendedMinkwitzChain.Tag elementTag =ExtendedMinkwitzChain.Tag.valueOf(this.currentElement());
         ExtendedMinkwitzChain.Tag parentTag =ExtendedMinkwitzChain.Tag.valueOf(this.currentElementParent());
 
         switch (elementTag) {
@@ -10,6 +10,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -67,13 +68,19 @@ class StabilizerContainer{
 
 class RepresentativesContainer{
     Map<Byte,GroupElement> representatives;
+    Function<String,Permutation> evaluator;
 
     public RepresentativesContainer() {
+        this(null);
+    }
+
+    public RepresentativesContainer(Function<String,Permutation> evaluator) {
         representatives=new HashMap<>();
+        this.evaluator=evaluator;
     }
 
     public void addRepresentative(RepresentativeContainer representative){
-        representatives.put(representative.getOrbitPoint(),representative.getGroupElement());
+        representatives.put(representative.getOrbitPoint(),representative.getGroupElement(evaluator));
     }
 
     public Map<Byte, GroupElement> getRepresentatives() {
@@ -110,6 +117,12 @@ class RepresentativeContainer{
         return new GroupElement(permutation,word);
     }
 
+    public GroupElement getGroupElement(Function<String,Permutation> evaluator){
+        if (evaluator==null || word==null)
+            return getGroupElement();
+        return new GroupElement(word,evaluator);
+    }
+
     public Byte getOrbitPoint(){
         return orbitPoint;
     }
@@ -135,10 +148,24 @@ public class MinkwitzParser extends DefaultHandler {
 
     private final String name;
     private boolean verbose;
+    private final Function<String,Permutation> evaluator;
 
     public MinkwitzParser(String name,boolean verbose) {
+        this(name,verbose,null);
+    }
+
+    /**
+     * With an evaluator only the words are kept. The permutations are not parsed,
+     * they are computed from the words when they are needed for the first time.
+     *
+     * @param name the name of the chain
+     * @param verbose
+     * @param evaluator computes the permutation of a word
+     */
+    public MinkwitzParser(String name,boolean verbose,Function<String,Permutation> evaluator) {
         this.name=name;
         this.verbose =verbose;
+        this.evaluator=evaluator;
     }
 
     public MinkwitzChain getMinkwitzChain(){
@@ -186,7 +213,7 @@ public class MinkwitzParser extends DefaultHandler {
                 this.objectStack.push(new StringBuilder());
                 break;
             case representatives:
-                this.objectStack.push(new RepresentativesContainer());
+                this.objectStack.push(new RepresentativesContainer(evaluator));
                 break;
             case representative:
                 Byte orbitPoint = atts.getValue("of") == null ? 0 : Byte.parseByte(atts.getValue("of"));
@@ -244,6 +271,7 @@ public class MinkwitzParser extends DefaultHandler {
                 if (verbose) Logger.logging(Logger.Level.info,"Adding representative "+rep);
                 break;
             case permutation:
+                if (evaluator!=null) break;
                 Permutation perm = Permutation.parse(((StringBuilder) obj).toString());
                 if (parentObj!=null) ((RepresentativeContainer) parentObj).setPermutation(perm);
                 break;
@@ -259,10 +287,12 @@ public class MinkwitzParser extends DefaultHandler {
      */
     public void characters(char ch[], int start, int length) {
 
+        MinkwitzChain.Tag elementTag =MinkwitzChain.Tag.valueOf(this.currentElement());
+        if (elementTag==MinkwitzChain.Tag.permutation && evaluator!=null) return; // computed from the word
+
         String value = new String(ch, start, length).trim();
         if(value.isEmpty()) return; // ignore white space
 
-        MinkwitzChain.Tag elementTag =MinkwitzChain.Tag.valueOf(this.currentElement());
         MinkwitzChain.Tag parentTag =MinkwitzChain.Tag.valueOf(this.currentElementParent());
 
         switch (elementTag) {
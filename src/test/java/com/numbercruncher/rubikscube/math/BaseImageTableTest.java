@@ -0,0 +1,47 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaseImageTableTest {
+
+    private static byte[] key(int i) {
+        return new byte[]{(byte) (i % 48), (byte) (i / 48 % 48), (byte) (i / 2304)};
+    }
+
+    @Test
+    void putAndGet() {
+        BaseImageTable table = new BaseImageTable(3);
+        assertEquals(BaseImageTable.MISSING, table.get(key(0)));
+        //many more keys than the initial capacity, the table is resized several times
+        int n = 20000;
+        for (int i = 0; i < n; i++)
+            assertEquals(BaseImageTable.MISSING, table.putIfAbsent(key(i), i));
+        assertEquals(n, table.size());
+        for (int i = 0; i < n; i++)
+            assertEquals(i, table.get(key(i)));
+
+        //an existing key keeps its id
+        assertEquals(17, table.putIfAbsent(key(17), -5));
+        assertEquals(17, table.get(key(17)));
+        assertEquals(n, table.size());
+        assertEquals(BaseImageTable.MISSING, table.get(new byte[]{47, 47, 47}));
+    }
+
+    @Test
+    void equalHashes() {
+        //keys with the same hash code are found by probing
+        BaseImageTable table = new BaseImageTable(2);
+        byte[][] keys = {{0, 31}, {1, 0}, {2, -31}};
+        for (byte[] key : keys)
+            assertEquals(Arrays.hashCode(keys[0]), Arrays.hashCode(key));
+        for (int i = 0; i < keys.length; i++)
+            table.putIfAbsent(keys[i], i);
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i, table.get(keys[i]));
+        assertEquals(BaseImageTable.MISSING, table.get(new byte[]{3, -62}));
+    }
+}
@@ -0,0 +1,65 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KnuthBendixTest {
+
+    @Test
+    void cyclicGroup() {
+        TreeMap<String, String> equations = new TreeMap<>(new SimplifyingRuleComparator());
+        equations.put("aaa", "");
+        equations.put("aA", "");
+        equations.put("Aa", "");
+        KnuthBendix completion = new KnuthBendix(10, 100);
+        TreeMap<String, String> rules = completion.complete(equations);
+        assertTrue(completion.isConfluent());
+        assertEquals("a", completion.reduce("AA"));
+        assertEquals("", completion.reduce("aAaaAaa"));
+        assertEquals("A", new RewritingSystem(rules).rewrite("aaaaaaaa"));
+    }
+
+    @Test
+    void uniqueNormalForms() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        KnuthBendix completion = new KnuthBendix(20, 1000);
+        TreeMap<String, String> rules = completion.complete(s5.getSimplifyingRules(50));
+        assertTrue(completion.isConfluent());
+
+        RewritingSystem system = new RewritingSystem(rules);
+        Map<String, String> normalForms = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            GroupElement element = s5.randomElement(30);
+            String word = system.rewrite(element.getWord());
+            String permutation = element.getPermutation().toString();
+            assertEquals(permutation, s5.wordToPermutation(word).toString());
+            assertEquals(word, normalForms.computeIfAbsent(permutation, p -> word));
+            //the order of the rewriting doesn't matter
+            assertEquals(word, system.newWord().append(element.getWord()).toString());
+        }
+    }
+
+    @Test
+    void minimize() {
+        TreeMap<String, String> rules = new TreeMap<>(new SimplifyingRuleComparator());
+        rules.put("aA", "");
+        rules.put("Aa", "");
+        rules.put("aaA", "a");
+        rules.put("aaa", "AA");
+        rules.put("aaaa", "A");
+        TreeMap<String, String> minimal = KnuthBendix.minimize(rules);
+        assertEquals(3, minimal.size());
+        assertFalse(minimal.containsKey("aaA"));
+        assertFalse(minimal.containsKey("aaaa"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MacroIteratorTest {
+
+    @Test
+    void next() {
+        PermutationGroup s5 = new PermutationGroup("Symmetric group S5",
+                new String[]{"a","b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)"));
+
+        List<GroupElement> macros = new MacroIterator(s5, 20).toStream().collect(Collectors.toList());
+        System.out.println(macros.size() + " macros");
+
+        HashSet<Base> images = new HashSet<>();
+        for (GroupElement macro : macros) {
+            assertFalse(macro.getPermutation().isIdentity());
+            assertTrue(images.add(s5.getBase().action(macro.getPermutation())));
+            assertEquals(macro.getPermutation().toString(), s5.wordToElement(macro.getWord()).getPermutation().toString());
+        }
+
+        assertFalse(macros.isEmpty());
+        //the number of macros can be limited
+        assertEquals(10, new MacroIterator(s5, 20, 10).toStream().count());
+    }
+}
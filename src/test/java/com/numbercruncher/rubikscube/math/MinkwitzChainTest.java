@@ -1,8 +1,17 @@
 package com.numbercruncher.rubikscube.math;
 
+import com.numbercruncher.rubikscube.utils.IOUtils;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +41,120 @@ class MinkwitzChainTest {
         chain.save();
     }
 
+    @Test
+    void concurrentTraining() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+
+        MinkwitzChain sequential = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 120);
+        MinkwitzChain concurrent = new ConcurrentMinkwitzTraining(s5, 4).train(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 120);
+
+        assertEquals(sequential.getNumberOfMissingElements(), concurrent.getNumberOfMissingElements());
+        for (MinkwitzChain level = concurrent; !level.isLast(); level = level.getStabilizerChain()) {
+            byte omega = level.getOrbit().get(0);
+            for (Byte point : level.getOrbit()) {
+                GroupElement rep = level.getCosetRepresentative(point);
+                if (rep != null) {
+                    assertEquals((byte) point, rep.getPermutation().action(omega));
+                    assertEquals(rep.getPermutation().toString(), s5.wordToElement(rep.getWord()).getPermutation().toString());
+                }
+            }
+        }
+        System.out.println("Average word length: " + sequential.getAverageWordLength() + " (sequential), " + concurrent.getAverageWordLength() + " (concurrent)");
+    }
+
+    @Test
+    void pipelinedTraining() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+
+        MinkwitzChain sequential = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 120);
+        MinkwitzChain pipelined = new PipelinedMinkwitzTraining(s5).train(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 120);
+
+        //each stage processes its input in the same order as the sequential training
+        for (MinkwitzChain a = sequential, b = pipelined; !a.isLast(); a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            for (Byte point : a.getOrbit()) {
+                GroupElement rep = a.getCosetRepresentative(point);
+                GroupElement other = b.getCosetRepresentative(point);
+                assertEquals(rep == null ? null : rep.getWord().length(), other == null ? null : other.getWord().length());
+            }
+        }
+    }
+
+    @Test
+    void pipelinedTrainingFailure() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        //the orbit of the first level is too small, the stage fails for the first element, that moves the base point
+        Map<Byte, GroupElement> representatives = new HashMap<>();
+        representatives.put((byte) 0, s5.wordToElement(""));
+        MinkwitzChain broken = new MinkwitzChain(List.of((byte) 0), representatives,
+                new MinkwitzChain(List.of(), new HashMap<>(), null, ""), "broken");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () ->
+                assertThrows(ArrayIndexOutOfBoundsException.class, () -> new PipelinedMinkwitzTraining(s5).train(broken, 0, 120)));
+        assertEquals(1, broken.getOrbit().size());
+    }
+
+    @Test
+    void augmentedTraining() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        //a short training, in which the inverses of the elements fill more representatives
+        int plain = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 2).getNumberOfMissingElements();
+        s5.setInverseAugmentation(true);
+        int sequential = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 2).getNumberOfMissingElements();
+        assertTrue(sequential < plain);
+
+        MinkwitzChain concurrent = new ConcurrentMinkwitzTraining(s5, 4).train(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 2);
+        MinkwitzChain pipelined = new PipelinedMinkwitzTraining(s5).train(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 2);
+        assertEquals(sequential, concurrent.getNumberOfMissingElements());
+        assertEquals(sequential, pipelined.getNumberOfMissingElements());
+    }
+
+    @Test
+    void concurrentTrainingFailure() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        //the empty word of the representative of 1 is never replaced, its permutation has the wrong degree,
+        //so the workers fail, when they multiply with it
+        Map<Byte, GroupElement> representatives = new HashMap<>();
+        for (byte point = 0; point < 5; point++)
+            representatives.put(point, null);
+        representatives.put((byte) 0, s5.wordToElement(""));
+        GroupElement wrongDegree = new GroupElement(Permutation.parse("(0 1)"), "");
+        representatives.put((byte) 1, wrongDegree);
+        MinkwitzChain broken = new MinkwitzChain(List.of((byte) 0, (byte) 1, (byte) 2, (byte) 3, (byte) 4), representatives,
+                new MinkwitzChain(List.of(), new HashMap<>(), null, ""), "broken");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () ->
+                assertThrows(IllegalArgumentException.class, () -> new ConcurrentMinkwitzTraining(s5, 4).train(broken, 0, 120)));
+        //the chain is not changed
+        assertSame(wrongDegree, broken.getCosetRepresentative((byte) 1));
+        for (byte point = 2; point < 5; point++)
+            assertNull(broken.getCosetRepresentative(point));
+    }
+
     @Test
     void load() {
         MinkwitzChain chain = MinkwitzChain.load("Rubik's Cube Group",400000);
@@ -46,4 +169,162 @@ class MinkwitzChainTest {
         System.out.println("Average word length after simplification: "+chain.getAverageWordLength());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportXML() {
+        MinkwitzChain chain = MinkwitzChain.load("Rubik's Cube Group", 500000);
+        long start = System.currentTimeMillis();
+        chain.exportXML("_1");
+        long end = System.currentTimeMillis();
+        System.out.println("Exported XML in: " + (end - start) + " ms");
+
+        MinkwitzChain loaded = MinkwitzChain.load("Rubik's Cube Group", 1);
+        new File(IOUtils.getResourcePath("minkwitz").getFile(), "Rubik's Cube Group_1.xml").delete();
+
+        assertNotNull(loaded);
+        for (MinkwitzChain a = chain, b = loaded; a != null; a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            assertEquals(a.getOrbit(), b.getOrbit());
+            for (Byte point : a.getOrbit()) {
+                GroupElement rep = a.getCosetRepresentative(point);
+                if (rep != null) {
+                    assertEquals(rep.getWord(), b.getCosetRepresentative(point).getWord());
+                    assertEquals(rep.getPermutation().toString(), b.getCosetRepresentative(point).getPermutation().toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    void lazyLoad() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        MinkwitzChain chain = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators(), "S5 lazy"), 0, 120);
+        chain.exportXML("_120");
+        //the binary file contains the permutations, it would be preferred
+        new File(IOUtils.getResourcePath("minkwitz").getFile(), "S5 lazy_120.bin").delete();
+
+        MinkwitzChain loaded = MinkwitzChain.load("S5 lazy", 120, false, s5::wordToPermutation);
+        new File(IOUtils.getResourcePath("minkwitz").getFile(), "S5 lazy_120.xml").delete();
+
+        assertNotNull(loaded);
+        for (MinkwitzChain a = chain, b = loaded; !a.isLast(); a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            for (Byte point : a.getOrbit()) {
+                GroupElement rep = a.getCosetRepresentative(point);
+                if (rep != null) {
+                    GroupElement lazy = b.getCosetRepresentative(point);
+                    assertFalse(lazy.isEvaluated());
+                    assertEquals(rep.getWord(), lazy.getWord());
+                    assertEquals(rep.getPermutation().toString(), lazy.getPermutation().toString());
+                    assertTrue(lazy.isEvaluated());
+                }
+            }
+        }
+    }
+
+    @Test
+    void saveAndLoadBinary() throws IOException {
+        MinkwitzChain chain = MinkwitzChain.load("Rubik's Cube Group", 500000);
+
+        File file = File.createTempFile("minkwitz", ".bin");
+        file.deleteOnExit();
+        chain.save(file, true);
+
+        long start = System.currentTimeMillis();
+        MinkwitzChain loaded = MinkwitzChain.load(file, "Rubik's Cube Group");
+        long end = System.currentTimeMillis();
+        System.out.println("Loaded " + file.length() + " bytes in: " + (end - start) + " ms");
+
+        for (MinkwitzChain a = chain, b = loaded; a != null; a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            assertEquals(a.getOrbit(), b.getOrbit());
+            for (Byte point : a.getOrbit()) {
+                GroupElement rep = a.getCosetRepresentative(point);
+                if (rep == null) {
+                    assertNull(b.getCosetRepresentative(point));
+                } else {
+                    assertEquals(rep.getWord(), b.getCosetRepresentative(point).getWord());
+                    assertEquals(rep.getPermutation().toString(), b.getCosetRepresentative(point).getPermutation().toString());
+                }
+            }
+        }
+
+        //words only, the permutations are computed from the words
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        chain.save(file, false);
+        loaded = MinkwitzChain.load(file, "Rubik's Cube Group", rubiksGroup::wordToElement);
+        GroupElement rep = chain.getStabilizerChain().getCosetRepresentative(chain.getStabilizerChain().getOrbit().get(1));
+        assertEquals(rep.getPermutation().toString(), loaded.getStabilizerChain().getCosetRepresentative(chain.getStabilizerChain().getOrbit().get(1)).getPermutation().toString());
+    }
+
+    @Test
+    void saveAndLoadExtendedBinary() throws IOException {
+        long start = System.currentTimeMillis();
+        ExtendedMinkwitzChain chain = ExtendedMinkwitzChain.load("Rubik's Cube Group", 7000000, 7000000, 1);
+        long end = System.currentTimeMillis();
+        System.out.println("Loaded XML in: " + (end - start) + " ms");
+
+        File file = File.createTempFile("extended_minkwitz", ".bin");
+        file.deleteOnExit();
+        chain.save(file, true);
+
+        start = System.currentTimeMillis();
+        ExtendedMinkwitzChain loaded = ExtendedMinkwitzChain.load(file, "Rubik's Cube Group");
+        end = System.currentTimeMillis();
+        System.out.println("Loaded " + file.length() + " bytes in: " + (end - start) + " ms");
+
+        for (ExtendedMinkwitzChain a = chain, b = loaded; a != null; a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            assertEquals(a.getOrbit(), b.getOrbit());
+            for (Byte point : a.getOrbit()) {
+                TreeSet<GroupElement> reps = a.getCosetRepresentatives(point);
+                TreeSet<GroupElement> other = b.getCosetRepresentatives(point);
+                assertEquals(reps == null ? 0 : reps.size(), other == null ? 0 : other.size());
+            }
+        }
+    }
+
+    @Test
+    void corruptedBinary() throws IOException {
+        MinkwitzChain chain = MinkwitzChain.load("Rubik's Cube Group", 500000);
+        File file = File.createTempFile("minkwitz", ".bin");
+        file.deleteOnExit();
+        chain.save(file, true);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(file.length() / 2);
+            int b = raf.read();
+            raf.seek(file.length() / 2);
+            raf.write(b ^ 0xff);
+        }
+        assertThrows(IOException.class, () -> MinkwitzChain.load(file, "Rubik's Cube Group"));
+    }
+
+    @Test
+    void binaryWithGreekLetters() throws IOException {
+        PermutationGroup greek = new PermutationGroup(
+                "Greek S5",
+                new String[]{"\u03b1", "\u03a4"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        List<Byte> orbit = List.of((byte) 0, (byte) 1, (byte) 2);
+        Map<Byte, List<GroupElement>> representatives = new HashMap<>();
+        representatives.put((byte) 0, List.of(greek.wordToElement("")));
+        representatives.put((byte) 1, List.of(greek.wordToElement("\u03b1"), greek.wordToElement("\u03a4\u03b1\u03c4")));
+        representatives.put((byte) 2, null);
+
+        File file = File.createTempFile("minkwitz", ".bin");
+        file.deleteOnExit();
+        for (boolean withImages : new boolean[]{true, false}) {
+            ChainFile.write(file, ChainFile.MINKWITZ, List.of(new ChainFile.Level(orbit, representatives)), withImages);
+            ChainFile.Level level = ChainFile.read(file, ChainFile.MINKWITZ, greek::wordToElement).get(0);
+            assertEquals(orbit, level.orbit);
+            assertNull(level.representatives.get((byte) 2));
+            List<GroupElement> loaded = level.representatives.get((byte) 1);
+            assertEquals("\u03a4\u03b1\u03c4", loaded.get(1).getWord());
+            assertEquals(representatives.get((byte) 1).get(1).getPermutation().toString(), loaded.get(1).getPermutation().toString());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.numbercruncher.rubikscube.math;
+
+import com.numbercruncher.rubikscube.utils.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedWordTest {
+
+    @Test
+    void concatAndInverse() {
+        Random random = new Random(1);
+        String letters = "TDLRFBtdlrfb";
+        for (int n = 0; n < 2000; n++) {
+            String w1 = randomWord(random, letters, random.nextInt(40));
+            String w2 = randomWord(random, letters, random.nextInt(40));
+            PackedWord product = PackedWord.of(w1).concat(PackedWord.of(w2));
+            assertEquals(w1 + w2, product.toString());
+            assertEquals(w1.length() + w2.length(), product.length());
+            assertEquals(PackedWord.of(w1 + w2), product);
+            assertEquals(PackedWord.of(w1 + w2).hashCode(), product.hashCode());
+
+            String inverse = StringUtils.toggleCase(new StringBuilder(w1 + w2).reverse().toString());
+            assertEquals(inverse, product.inverse().toString());
+            assertEquals(PackedWord.of(inverse), product.inverse());
+            assertEquals(Integer.signum(w1.compareTo(w2)), Integer.signum(PackedWord.of(w1).compareTo(PackedWord.of(w2))));
+        }
+    }
+
+    @Test
+    void lettersWithoutCode() {
+        //letters outside of the ASCII range are numbered as well
+        PackedWord greek = PackedWord.of("T\u03a4");
+        assertTrue(greek.isPacked());
+        assertEquals("\u03c4t", greek.inverse().toString());
+        assertEquals("T\u03a4TL", greek.concat(PackedWord.of("TL")).toString());
+
+        //an alphabet has space for 8 letters with their inverses, the other letters are kept as a string
+        String letters = "abcdefghi";
+        PackedWord.Alphabet alphabet = PackedWord.Alphabet.of(letters);
+        assertEquals(16, alphabet.size());
+        PackedWord word = PackedWord.of(letters, alphabet);
+        assertFalse(word.isPacked());
+        assertEquals("IHGFEDCBA", word.inverse().toString());
+        assertEquals(PackedWord.of("abcdefgh", alphabet).concat(PackedWord.of("i", alphabet)), word);
+        assertTrue(PackedWord.of("abcdefgh", alphabet).isPacked());
+    }
+
+    @Test
+    void alphabetOfTheGroup() {
+        //the words of a group are packed, no matter which groups were created before
+        PermutationGroup coxeter = new PermutationGroup(
+                "Three letters",
+                new String[]{"a", "b", "c"},
+                Permutation.parse("(0 1)(2 3)(4)"),
+                Permutation.parse("(1 2)(3 4)"),
+                Permutation.parse("(0 4)")
+        );
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"x", "y"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        assertTrue(coxeter.randomElement(30).getPackedWord().isPacked());
+        assertTrue(s5.randomElement(30).getPackedWord().isPacked());
+
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        PackedWord.Alphabet alphabet = rubiksGroup.getAlphabet();
+        assertEquals(12, alphabet.size());
+        for (GroupElement generator : rubiksGroup.getGroupElementGenerators())
+            assertSame(alphabet, generator.getPackedWord().getAlphabet());
+        GroupElement product = rubiksGroup.getGroupElementGenerators().get(0);
+        for (int i = 0; i < 40; i++) {
+            product = product.multiply(rubiksGroup.randomElement(5));
+            assertTrue(product.getPackedWord().isPacked());
+        }
+        assertSame(alphabet, rubiksGroup.getWordEvaluator().toElement("TDL").getPackedWord().getAlphabet());
+
+        //words of different alphabets are encoded again
+        PackedWord mixed = PackedWord.of("ab", coxeter.getAlphabet()).concat(PackedWord.of("TDL", alphabet));
+        assertTrue(mixed.isPacked());
+        assertEquals("abTDL", mixed.toString());
+        assertEquals(PackedWord.of("abTDL"), mixed);
+        assertEquals("abTDL".hashCode(), mixed.hashCode());
+    }
+
+    @Test
+    void groupElement() {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        GroupElement element = rubiksGroup.randomElement(40);
+        GroupElement inverse = element.inverse();
+        assertTrue(element.multiply(inverse).getPermutation().isIdentity());
+        assertEquals(2 * element.getWordLength(), element.multiply(inverse).getWordLength());
+        assertEquals(element.getPermutation().toString(), rubiksGroup.wordToPermutation(element.getWord()).toString());
+
+        //the factors are only allocated, when they are added
+        assertTrue(element.getFactors().isEmpty());
+        element.addFactor("T");
+        assertEquals(List.of("T"), element.getFactors());
+
+        //the packed word is read as a CharSequence
+        RewritingSystem rewritingSystem = new RewritingSystem(Map.of("TTTT", ""));
+        GroupElement t = rubiksGroup.getGroupElementGenerators().get(0);
+        GroupElement power = t.multiply(t).multiply(t);
+        assertEquals("", power.multiply(t, rewritingSystem).getWord());
+        assertEquals(power.getWord(), new ReducedWord(rewritingSystem, power.getPackedWord()).toString());
+    }
+
+    private static String randomWord(Random random, String letters, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            word.append(letters.charAt(random.nextInt(letters.length())));
+        return word.toString();
+    }
+}
@@ -179,6 +179,49 @@ class PermutationGroupRubiksCubeTest {
     }
 
 
+    @Test
+    void containsAll() {
+        List<Permutation> perms = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            perms.add(rubiksGroup.randomElement(20).getPermutation());
+            perms.add(Permutation.randomPermutation(49));
+        }
+
+        long start = System.currentTimeMillis();
+        BitSet members = rubiksGroup.containsAll(perms);
+        long end = System.currentTimeMillis();
+        System.out.println("Sifted "+perms.size()+" permutations in: " + (end - start) + " ms");
+
+        for (int i = 0; i < perms.size(); i++) {
+            assertEquals(rubiksGroup.contains(perms.get(i)), members.get(i));
+        }
+
+        //a list without random access is copied, the result is the same
+        assertEquals(members, rubiksGroup.containsAll(new LinkedList<>(perms)));
+    }
+
+    @Test
+    void pointwiseStabilizerChain() {
+        //the odd points are the corner facets
+        byte[] corners = new byte[24];
+        for (int i = 0; i < corners.length; i++) corners[i] = (byte) (2 * i + 1);
+
+        long start = System.currentTimeMillis();
+        StabilizerChain chain = rubiksGroup.getPointwiseStabilizerChain(corners);
+        long end = System.currentTimeMillis();
+        System.out.println("Base change in: " + (end - start) + " ms");
+
+        BigInteger size = BigInteger.ONE;
+        for (StabilizerChain level = chain; !level.isLast(); level = level.getStabilizer()) {
+            size = size.multiply(BigInteger.valueOf(level.getOrbit().size()));
+            for (Permutation generator : level.getGenerators())
+                for (byte corner : corners)
+                    assertEquals(corner, generator.action(corner));
+        }
+        //even permutations of the edges with an even number of flips
+        assertEquals(new BigInteger("490497638400"), size);
+    }
+
     @Test
     void testToString() {
         System.out.println(rubiksGroup);
@@ -83,6 +83,22 @@ class PermutationGroupS5Test {
         System.out.println("Average word length: "+chain2.getAverageWordLength());
     }
 
+    @Test
+    void trainMinkwitzChainRandomWalk(){
+        MinkwitzChain chain = new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators(), s5.getName());
+        s5.trainMinkwitzChainRandomWalk(chain, 2000, 8, 100);
+        s5.visualizeMinkwitzChain(chain);
+        System.out.println("Average word length: "+chain.getAverageWordLength());
+
+        assertEquals(0, chain.getNumberOfMissingElements());
+        for (MinkwitzChain level = chain; !level.isLast(); level = level.getStabilizerChain()) {
+            byte omega = level.getOrbit().get(0);
+            for (Byte point : level.getOrbit()) {
+                assertEquals((byte) point, level.getCosetRepresentative(point).getPermutation().action(omega));
+            }
+        }
+    }
+
     @Test
     void createExtendedMinkwitzChain(){
         ExtendedMinkwitzChain chain = s5.getExtendedMinkwitzChain(120,120);
@@ -93,6 +109,18 @@ class PermutationGroupS5Test {
 
     }
 
+    @Test
+    void preload(){
+        long start = System.currentTimeMillis();
+        ExtendedMinkwitzChain chain = s5.preload(0,120,20,1,120,false);
+        long end = System.currentTimeMillis();
+        System.out.println("Ready in: " + (end - start) + " ms");
+
+        assertNotNull(chain);
+        assertEquals(0,chain.getNumberOfMissingElements());
+        assertNotNull(s5.getSimplifyingRules(20));
+        assertTrue(s5.getIterator(120).hasNext());
+    }
 
 
     @Test
@@ -122,6 +150,16 @@ class PermutationGroupS5Test {
         s5.generateSimplificationRules(120,true);
     }
 
+    @Test
+    void simplifyWord(){
+        for (int i = 0; i < 20; i++) {
+            GroupElement element = s5.randomElement(40);
+            String word = s5.simplifyWord(element.getWord(),120);
+            assertTrue(word.length()<=element.getWordLength());
+            assertEquals(element.getPermutation().toString(),s5.wordToPermutation(word).toString());
+        }
+    }
+
     @Test
     void elementToWord(){
         int count = 0;
@@ -0,0 +1,72 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReducedWordTest {
+    private RewritingSystem system;
+
+    @BeforeEach
+    void setUp() {
+        TreeMap<String, String> rules = new TreeMap<>(new SimplifyingRuleComparator());
+        rules.put("aA", "");
+        rules.put("Aa", "");
+        rules.put("bB", "");
+        rules.put("Bb", "");
+        rules.put("bb", "");
+        rules.put("aaa", "AA");
+        system = new RewritingSystem(rules);
+    }
+
+    @Test
+    void append() {
+        assertEquals("", system.newWord().append("abBA").toString());
+        assertEquals("AA", system.newWord().append("aaa").toString());
+        assertEquals("", system.newWord().append("abbA").toString());
+        assertEquals("ab", system.newWord().append("ab").toString());
+        //the right-hand side AA is followed by a and cancels again
+        assertEquals("A", system.newWord().append("aaaa").toString());
+    }
+
+    @Test
+    void copy() {
+        ReducedWord word = system.newWord().append("ab");
+        ReducedWord copy = word.copy().append('B');
+        assertEquals("ab", word.toString());
+        assertEquals("a", copy.toString());
+        assertEquals("", copy.append('A').toString());
+    }
+
+    @Test
+    void sameGroupElement() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        TreeMap<String, String> s5Rules = s5.getSimplifyingRules(50);
+        RewritingSystem s5System = new RewritingSystem(s5Rules);
+        //random words, that are not reduced by the rules yet
+        Random random = new Random(42);
+        int shortened = 0;
+        for (int i = 0; i < 200; i++) {
+            StringBuilder letters = new StringBuilder();
+            for (int k = 0; k < 40; k++)
+                letters.append("aAbB".charAt(random.nextInt(4)));
+            String randomWord = letters.toString();
+            String word = s5System.newWord().append(randomWord).toString();
+            assertEquals(s5.wordToPermutation(randomWord).toString(), s5.wordToPermutation(word).toString());
+            for (String lhs : s5Rules.keySet())
+                assertFalse(word.contains(lhs));
+            if (word.length() < randomWord.length())
+                shortened++;
+        }
+        assertEquals(200, shortened);
+    }
+}
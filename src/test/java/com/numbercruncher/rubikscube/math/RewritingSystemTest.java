@@ -0,0 +1,186 @@
+package com.numbercruncher.rubikscube.math;
+
+import com.numbercruncher.rubikscube.utils.IOUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewritingSystemTest {
+    private TreeMap<String, String> rules;
+
+    @BeforeEach
+    void setUp() {
+        rules = new TreeMap<>(new SimplifyingRuleComparator());
+        rules.put("aA", "");
+        rules.put("Aa", "");
+        rules.put("bB", "");
+        rules.put("Bb", "");
+        rules.put("bb", "");
+        rules.put("aaa", "AA");
+    }
+
+    @Test
+    void rewrite() {
+        RewritingSystem system = new RewritingSystem(rules);
+        assertEquals("", system.rewrite("abBA"));
+        assertEquals("AA", system.rewrite("aaa"));
+        //the letters left and right of a replacement cancel
+        assertEquals("", system.rewrite("abbA"));
+        assertEquals("ab", system.rewrite("ab"));
+        assertEquals("c", system.rewrite("cbb"));
+    }
+
+    @Test
+    void longestRuleFirst() {
+        rules.put("abc", "x");
+        rules.put("bc", "y");
+        assertEquals("x", new RewritingSystem(rules).rewrite("abc"));
+    }
+
+    @Test
+    void onlyShorteningRules() {
+        rules.put("ab", "ba");
+        RewritingSystem system = new RewritingSystem(rules);
+        assertEquals(6, system.size());
+        assertEquals("ab", system.rewrite("ab"));
+    }
+
+    @Test
+    void sameGroupElement() {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        TreeMap<String, String> s5Rules = s5.getSimplifyingRules(50);
+        RewritingSystem system = new RewritingSystem(s5Rules);
+        //random words, that are not reduced by the rules yet
+        Random random = new Random(42);
+        int shortened = 0;
+        for (int i = 0; i < 200; i++) {
+            StringBuilder letters = new StringBuilder();
+            for (int k = 0; k < 40; k++)
+                letters.append("aAbB".charAt(random.nextInt(4)));
+            String randomWord = letters.toString();
+            String word = system.rewrite(randomWord);
+            assertEquals(s5.wordToPermutation(randomWord).toString(), s5.wordToPermutation(word).toString());
+            for (String lhs : s5Rules.keySet())
+                assertFalse(word.contains(lhs));
+            if (word.length() < randomWord.length())
+                shortened++;
+        }
+        assertEquals(200, shortened);
+    }
+
+    @Test
+    void saveAndLoad() throws IOException {
+        rules.put("abc", "x");
+        RewritingSystem system = new RewritingSystem(rules);
+        File file = File.createTempFile("rules", ".rws");
+        file.deleteOnExit();
+        system.save(file);
+
+        RewritingSystem mapped = RewritingSystem.load(file);
+        assertEquals(system.size(), mapped.size());
+        for (String word : new String[]{"abBA", "aaa", "abbA", "ab", "cbb", "abc", "aaaaab"})
+            assertEquals(system.rewrite(word), mapped.rewrite(word));
+        assertEquals(system.newWord().append("aaaaab").toString(), mapped.newWord().append("aaaaab").toString());
+    }
+
+    @Test
+    void loadWrongFormat() throws IOException {
+        File file = File.createTempFile("rules", ".rws");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[4 * 200]);
+        }
+        assertThrows(IOException.class, () -> RewritingSystem.load(file));
+    }
+
+    @Test
+    void nonAsciiLetters() throws IOException {
+        rules.put("\u03a4\u03c4", "");
+        rules.put("\u03a4\u03a4\u03a4", "\u03c4");
+        rules.put("a\u03a4a", "\u03a4");
+        RewritingSystem system = new RewritingSystem(rules);
+        assertEquals("b", system.rewrite("\u03a4\u03a4\u03c4\u03c4b"));
+        assertEquals("\u03c4", system.rewrite("\u03a4\u03a4\u03a4"));
+        assertEquals("\u03a4", system.rewrite("aa\u03a4aa"));
+        assertEquals("\u03c4", system.newWord().append("\u03a4\u03a4\u03a4").toString());
+
+        File file = File.createTempFile("rules", ".rws");
+        file.deleteOnExit();
+        system.save(file);
+        assertEquals("\u03a4", RewritingSystem.load(file).rewrite("aa\u03a4aa"));
+    }
+
+    @Test
+    void sourceChecksum() throws IOException {
+        File rulesFile = File.createTempFile("rules", ".txt");
+        rulesFile.deleteOnExit();
+        try (FileWriter writer = new FileWriter(rulesFile)) {
+            writer.write("aA->\n");
+        }
+        int checksum = RewritingSystem.checksum(rulesFile);
+        RewritingSystem system = new RewritingSystem(rules, checksum);
+        assertEquals(checksum, system.getSourceChecksum());
+        assertEquals(0, new RewritingSystem(rules).getSourceChecksum());
+
+        File file = File.createTempFile("rules", ".rws");
+        file.deleteOnExit();
+        system.save(file);
+        assertEquals(checksum, RewritingSystem.load(file).getSourceChecksum());
+
+        try (FileWriter writer = new FileWriter(rulesFile, true)) {
+            writer.write("bB->\n");
+        }
+        assertNotEquals(checksum, RewritingSystem.checksum(rulesFile));
+    }
+
+    @Test
+    void outdatedAutomaton() throws IOException {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5 rws",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        RewritingSystem system = s5.getRewritingSystem(20, false);
+        File dir = IOUtils.getResourceDirectory("rules");
+        File file = dir == null ? null : new File(dir, s5.getName() + "_20.rws");
+        try {
+            if (file != null) {
+                //an automaton of other rules is stored under the name of the rules
+                new RewritingSystem(Map.of("ab", "")).save(file);
+            }
+            PermutationGroup copy = new PermutationGroup(
+                    "Symmetric group S5 rws",
+                    new String[]{"a", "b"},
+                    Permutation.parse("(0 1 2 3 4)"),
+                    Permutation.parse("(3 4)")
+            );
+            RewritingSystem compiled = copy.getRewritingSystem(20, false);
+            assertEquals(system.size(), compiled.size());
+            assertEquals(system.getSourceChecksum(), compiled.getSourceChecksum());
+            for (int i = 0; i < 50; i++) {
+                String word = s5.randomElement(30).getWord() + "ab";
+                assertEquals(system.rewrite(word), compiled.rewrite(word));
+            }
+        } finally {
+            if (dir != null) {
+                file.delete();
+                new File(dir, s5.getName() + "_20.txt").delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimplificationRuleGeneratorTest {
+
+    private static final int NUMBER_OF_RULES = 30;
+
+    private static PermutationGroup s5() {
+        return new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+    }
+
+    private static TreeMap<String, String> generate(PermutationGroup group, int numberOfRules) {
+        return new SimplificationRuleGenerator(group.getGroupElementGenerators(), group.getBase()).generate(numberOfRules, null, false);
+    }
+
+    @Test
+    void properSubwordsAreIrreducible() {
+        PermutationGroup s5 = s5();
+        TreeMap<String, String> rules = generate(s5, -1);
+        assertFalse(rules.isEmpty());
+        for (String lhs : rules.keySet()) {
+            //the prefix and the suffix without one letter contain all proper subwords
+            String prefix = lhs.substring(0, lhs.length() - 1);
+            String suffix = lhs.substring(1);
+            for (String other : rules.keySet()) {
+                assertFalse(prefix.contains(other), other + " is contained in " + lhs);
+                assertFalse(suffix.contains(other), other + " is contained in " + lhs);
+            }
+            assertEquals(s5.wordToPermutation(lhs).toString(), s5.wordToPermutation(rules.get(lhs)).toString());
+            assertTrue(rules.get(lhs).length() < lhs.length());
+        }
+    }
+
+    /**
+     * The sequential breadth-first search, that was used before the generator
+     */
+    private static TreeMap<String, String> generateSequentially(PermutationGroup group) {
+        TreeMap<String, String> rules = new TreeMap<>(new SimplifyingRuleComparator());
+        Base base = group.getBase();
+        Map<Base, String> elements = new HashMap<>();
+        Deque<GroupElement> queue = new ArrayDeque<>();
+        elements.put(base, "");
+        queue.offer(group.wordToElement(""));
+        while (!queue.isEmpty()) {
+            GroupElement element = queue.poll();
+            for (GroupElement generator : group.getGroupElementGenerators()) {
+                GroupElement next = element.multiply(generator);
+                Base nextBase = base.action(next.getPermutation());
+                String target = elements.get(nextBase);
+                if (target == null) {
+                    queue.offer(next);
+                    elements.put(nextBase, next.getWord());
+                } else {
+                    String src = next.getWord();
+                    String suffix = elements.get(base.action(group.wordToPermutation(src.substring(1))));
+                    if (src.length() > target.length() && (suffix == null || suffix.length() >= src.length() - 1))
+                        rules.put(src, target);
+                }
+            }
+        }
+        return rules;
+    }
+
+    @Test
+    void sameRulesAsSequentialSearch() {
+        PermutationGroup s5 = s5();
+        assertEquals(generateSequentially(s5), generate(s5, -1));
+
+        PermutationGroup s6 = new PermutationGroup(
+                "Symmetric group S6",
+                new String[]{"a", "b", "c"},
+                Permutation.parse("(0 1 2 3 4 5)"),
+                Permutation.parse("(0 1)(4 5)"),
+                Permutation.parse("(1 3)(2 5)")
+        );
+        assertEquals(generateSequentially(s6), generate(s6, -1));
+    }
+
+    @Test
+    void independentOfThreads() throws Exception {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        SimplificationRuleGenerator generator = new SimplificationRuleGenerator(rubiksGroup.getGroupElementGenerators(), rubiksGroup.getBase());
+
+        StringWriter single = new StringWriter();
+        TreeMap<String, String> rules = new ForkJoinPool(1).submit(() -> generator.generate(NUMBER_OF_RULES, single, false)).get();
+        StringWriter parallel = new StringWriter();
+        TreeMap<String, String> parallelRules = new ForkJoinPool(4).submit(() -> generator.generate(NUMBER_OF_RULES, parallel, false)).get();
+
+        assertTrue(rules.size() > NUMBER_OF_RULES);
+        assertEquals(rules, parallelRules);
+        //the rules are written in the same order
+        assertEquals(single.toString(), parallel.toString());
+    }
+}
@@ -0,0 +1,92 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StabilizerChainTest {
+
+    @Test
+    void saveAndLoad() throws IOException {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        StabilizerChain chain = rubiksGroup.getStabilizerChain();
+
+        File file = File.createTempFile("stabilizer_chain", ".bin");
+        file.deleteOnExit();
+        chain.save(file, rubiksGroup.getDegree());
+
+        long start = System.currentTimeMillis();
+        StabilizerChain loaded = StabilizerChain.load(file);
+        long end = System.currentTimeMillis();
+        System.out.println("Loaded in: " + (end - start) + " ms");
+
+        while (!chain.isLast()) {
+            assertEquals(chain.getOrbit(), loaded.getOrbit());
+            assertEquals(chain.getGenerators().size(), loaded.getGenerators().size());
+            for (Byte point : chain.getOrbit()) {
+                assertEquals(chain.getCosetRepresentative(point).toString(), loaded.getCosetRepresentative(point).toString());
+            }
+            chain = chain.getStabilizer();
+            loaded = loaded.getStabilizer();
+        }
+        assertTrue(loaded.isLast());
+    }
+
+    @Test
+    void simsFilter() {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        BigInteger size = rubiksGroup.getSize();
+        List<StabilizerChain> unfiltered = levels(rubiksGroup.getStabilizerChain());
+
+        rubiksGroup.setGeneratorFilter(StabilizerChain.GeneratorFilter.sims);
+        assertEquals(size, rubiksGroup.getSize());
+        List<StabilizerChain> filtered = levels(rubiksGroup.getStabilizerChain());
+        assertEquals(unfiltered.size(), filtered.size());
+
+        //the same generators are added in the same order, only the filter differs
+        int unfilteredViolations = 0;
+        for (int l = 0; l < filtered.size(); l++) {
+            List<Permutation> generators = filtered.get(l).getGenerators();
+            assertTrue(generators.size() <= unfiltered.get(l).getGenerators().size());
+            //the Sims table keeps at most one generator with the same first moved point i and image g(i)
+            assertEquals(generators.size(), simsKeys(generators).size());
+            if (simsKeys(unfiltered.get(l).getGenerators()).size() < unfiltered.get(l).getGenerators().size())
+                unfilteredViolations++;
+        }
+        //without the filter some levels have generators with the same key
+        assertTrue(unfilteredViolations > 0);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(rubiksGroup.contains(rubiksGroup.randomElement(20)));
+        }
+    }
+
+    private static List<StabilizerChain> levels(StabilizerChain chain) {
+        List<StabilizerChain> levels = new ArrayList<>();
+        for (; !chain.isLast(); chain = chain.getStabilizer())
+            levels.add(chain);
+        return levels;
+    }
+
+    /**
+     * @return the pairs (i, g(i)) of the first moved point i of the generators
+     */
+    private static HashSet<Integer> simsKeys(List<Permutation> generators) {
+        HashSet<Integer> keys = new HashSet<>();
+        for (Permutation generator : generators) {
+            byte[] image = generator.getImage();
+            int i = 0;
+            while (image[i] == i)
+                i++;
+            keys.add(i * image.length + image[i]);
+        }
+        return keys;
+    }
+}
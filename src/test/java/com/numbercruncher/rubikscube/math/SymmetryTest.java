@@ -0,0 +1,33 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymmetryTest {
+
+    @Test
+    void findSymmetries() {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+
+        long start = System.currentTimeMillis();
+        List<Symmetry> symmetries = rubiksGroup.getSymmetries();
+        long end = System.currentTimeMillis();
+        System.out.println("Found " + symmetries.size() + " symmetries in: " + (end - start) + " ms");
+
+        //rotations and reflections of the cube
+        assertEquals(48, symmetries.size());
+        assertEquals(1, symmetries.stream().filter(Symmetry::isIdentity).count());
+
+        for (int i = 0; i < 20; i++) {
+            GroupElement element = rubiksGroup.randomElement(20);
+            for (Symmetry symmetry : symmetries) {
+                GroupElement conjugate = symmetry.conjugate(element);
+                assertEquals(element.getWord().length(), conjugate.getWord().length());
+                assertEquals(conjugate.getPermutation().toString(), rubiksGroup.wordToElement(conjugate.getWord()).getPermutation().toString());
+            }
+        }
+    }
+}
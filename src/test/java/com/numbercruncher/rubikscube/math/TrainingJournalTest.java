@@ -0,0 +1,158 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrainingJournalTest {
+
+    @Test
+    void replay() throws IOException {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        File directory = Files.createTempDirectory("journal").toFile();
+        directory.deleteOnExit();
+
+        //train a reference chain and record all representatives
+        MinkwitzChain trained = s5.trainMinkwitzChain(new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), 0, 120);
+
+        long fingerprint = TrainingJournal.fingerprint(s5.getGroupElementGenerators(), trained);
+        TrainingJournal journal = new TrainingJournal(directory, "s5", fingerprint, 5);
+        journal.start();
+        int depth = 0;
+        for (MinkwitzChain level = trained; !level.isLast(); level = level.getStabilizerChain(), depth++) {
+            for (Byte point : level.getOrbit()) {
+                GroupElement rep = level.getCosetRepresentative(point);
+                if (rep != null)
+                    journal.update(depth, point, rep.getWord());
+            }
+            journal.progress(depth);
+        }
+        journal.close();
+        assertTrue(new File(directory, "s5.snapshot").exists());
+
+        //recover the state in a new chain
+        MinkwitzChain recovered = new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators());
+        int progress = new TrainingJournal(directory, "s5", fingerprint).replay(recovered, s5::wordToElement);
+        assertEquals(depth - 1, progress);
+
+        for (MinkwitzChain a = trained, b = recovered; !a.isLast(); a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+            for (Byte point : a.getOrbit()) {
+                GroupElement rep = a.getCosetRepresentative(point);
+                if (rep != null) {
+                    assertEquals(rep.getWord(), b.getCosetRepresentative(point).getWord());
+                    assertEquals(rep.getPermutation().toString(), b.getCosetRepresentative(point).getPermutation().toString());
+                }
+            }
+        }
+        new TrainingJournal(directory, "s5", fingerprint).delete();
+    }
+
+    @Test
+    void nonAsciiLabels() throws IOException {
+        PermutationGroup greek = new PermutationGroup(
+                "Greek S5",
+                new String[]{"a", "\u03a4"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        File directory = Files.createTempDirectory("journal").toFile();
+        directory.deleteOnExit();
+
+        MinkwitzChain trained = greek.trainMinkwitzChain(new MinkwitzChain(greek.getStabilizerChain(), greek.getGroupElementGenerators()), 0, 120);
+        long fingerprint = TrainingJournal.fingerprint(greek.getGroupElementGenerators(), trained);
+        //without compaction the words are read from the journal, with compaction from the snapshot
+        for (int compactionInterval : new int[]{1000, 3}) {
+            TrainingJournal journal = new TrainingJournal(directory, "greek", fingerprint, compactionInterval);
+            journal.start();
+            int depth = 0;
+            for (MinkwitzChain level = trained; !level.isLast(); level = level.getStabilizerChain(), depth++)
+                for (Byte point : level.getOrbit())
+                    if (level.getCosetRepresentative(point) != null)
+                        journal.update(depth, point, level.getCosetRepresentative(point).getWord());
+            journal.close();
+
+            MinkwitzChain recovered = new MinkwitzChain(greek.getStabilizerChain(), greek.getGroupElementGenerators());
+            new TrainingJournal(directory, "greek", fingerprint).replay(recovered, greek::wordToElement);
+            boolean greekLetters = false;
+            for (MinkwitzChain a = trained, b = recovered; !a.isLast(); a = a.getStabilizerChain(), b = b.getStabilizerChain()) {
+                for (Byte point : a.getOrbit()) {
+                    GroupElement rep = a.getCosetRepresentative(point);
+                    if (rep != null) {
+                        assertEquals(rep.getWord(), b.getCosetRepresentative(point).getWord());
+                        assertEquals(rep.getPermutation().toString(), b.getCosetRepresentative(point).getPermutation().toString());
+                        greekLetters |= rep.getWord().indexOf('\u03a4') >= 0 || rep.getWord().indexOf('\u03c4') >= 0;
+                    }
+                }
+            }
+            assertTrue(greekLetters);
+            new TrainingJournal(directory, "greek", fingerprint).delete();
+        }
+    }
+
+    @Test
+    void otherGroup() throws IOException {
+        PermutationGroup s5 = new PermutationGroup(
+                "Symmetric group S5",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        PermutationGroup s6 = new PermutationGroup(
+                "Symmetric group S6",
+                new String[]{"a", "b"},
+                Permutation.parse("(0 1 2 3 4 5)"),
+                Permutation.parse("(4 5)")
+        );
+        File directory = Files.createTempDirectory("journal").toFile();
+        directory.deleteOnExit();
+
+        //the journal of S6 has more levels than the chain of S5
+        MinkwitzChain trained = s6.trainMinkwitzChain(new MinkwitzChain(s6.getStabilizerChain(), s6.getGroupElementGenerators()), 0, 720);
+        long fingerprint = TrainingJournal.fingerprint(s6.getGroupElementGenerators(), trained);
+        TrainingJournal journal = new TrainingJournal(directory, "chain", fingerprint, 5);
+        journal.start();
+        int depth = 0;
+        for (MinkwitzChain level = trained; !level.isLast(); level = level.getStabilizerChain(), depth++) {
+            for (Byte point : level.getOrbit())
+                if (level.getCosetRepresentative(point) != null)
+                    journal.update(depth, point, level.getCosetRepresentative(point).getWord());
+            journal.progress(depth);
+        }
+        journal.close();
+
+        MinkwitzChain chain = new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators());
+        long otherFingerprint = TrainingJournal.fingerprint(s5.getGroupElementGenerators(), chain);
+        assertNotEquals(fingerprint, otherFingerprint);
+        TrainingJournal other = new TrainingJournal(directory, "chain", otherFingerprint);
+        int levels = representatives(chain);
+        assertEquals(-1, other.replay(chain, s5::wordToElement));
+        //nothing is recovered, only the identities of the base points are known
+        assertEquals(levels, representatives(chain));
+
+        //the rejected journal is started anew with the fingerprint of S5
+        other.start();
+        other.progress(7);
+        other.close();
+        assertEquals(7, new TrainingJournal(directory, "chain", otherFingerprint).replay(
+                new MinkwitzChain(s5.getStabilizerChain(), s5.getGroupElementGenerators()), s5::wordToElement));
+        other.delete();
+    }
+
+    private static int representatives(MinkwitzChain chain) {
+        int count = 0;
+        for (MinkwitzChain level = chain; !level.isLast(); level = level.getStabilizerChain())
+            for (Byte point : level.getOrbit())
+                if (level.getCosetRepresentative(point) != null)
+                    count++;
+        return count;
+    }
+}
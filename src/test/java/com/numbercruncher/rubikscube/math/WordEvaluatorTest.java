@@ -0,0 +1,67 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordEvaluatorTest {
+
+    private final PermutationGroup s5 = new PermutationGroup(
+            "Symmetric group S5",
+            new String[]{"a", "b"},
+            Permutation.parse("(0 1 2 3 4)"),
+            Permutation.parse("(3 4)")
+    );
+
+    @Test
+    void evaluate() {
+        WordEvaluator evaluator = new WordEvaluator(s5.getGroupElementGenerators());
+        assertArrayEquals(new byte[]{0, 1, 2, 3, 4}, evaluator.evaluate(""));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 0}, evaluator.evaluate("a"));
+        //the letters are applied from left to right
+        assertEquals(Permutation.parse("(0 1 2 3 4)").multiply(Permutation.parse("(3 4)")).toString(),
+                evaluator.toPermutation("ab").toString());
+        assertEquals("ab", evaluator.toElement("ab").getWord());
+        assertThrows(IllegalArgumentException.class, () -> evaluator.evaluate("ac"));
+    }
+
+    @Test
+    void cachedPrefixes() {
+        //a small cache, that is cleared several times
+        WordEvaluator cached = new WordEvaluator(s5.getGroupElementGenerators(), 20);
+        WordEvaluator plain = new WordEvaluator(s5.getGroupElementGenerators());
+        for (int i = 0; i < 200; i++) {
+            GroupElement element = s5.randomElement(i % 30);
+            String word = element.getWord();
+            assertEquals(element.getPermutation().toString(), cached.toPermutation(word).toString());
+            assertArrayEquals(plain.evaluate(word + "ab"), cached.evaluate(word + "ab"));
+            assertArrayEquals(plain.evaluate(word), cached.evaluate(word));
+        }
+    }
+
+    @Test
+    void nonAsciiLetters() {
+        PermutationGroup greek = new PermutationGroup(
+                "Greek S5",
+                new String[]{"a", "\u03a4"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        WordEvaluator evaluator = greek.getWordEvaluator();
+        assertEquals(Permutation.parse("(0 1 2 3 4)").multiply(Permutation.parse("(3 4)")).toString(),
+                greek.wordToPermutation("a\u03a4").toString());
+        for (int i = 0; i < 50; i++) {
+            GroupElement element = greek.randomElement(20);
+            assertEquals(element.getPermutation().toString(), evaluator.toPermutation(element.getWord()).toString());
+        }
+    }
+
+    @Test
+    void skipUnknownLetters() {
+        WordEvaluator evaluator = new WordEvaluator(s5.getGroupElementGenerators(), 20);
+        GroupElement element = evaluator.toElementSkippingUnknownLetters(" a b ");
+        assertEquals("ab", element.getWord());
+        assertArrayEquals(evaluator.evaluate("ab"), element.getPermutation().getImage());
+        assertEquals("", evaluator.toElementSkippingUnknownLetters(" ").getWord());
+    }
+}
@@ -0,0 +1,56 @@
+package com.numbercruncher.rubikscube.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordReducerTest {
+
+    @Test
+    void reduce() {
+        WordReducer reducer = new WordReducer(List.of("a", "b"),
+                List.of(Permutation.parse("(0 1 2 3 4)"), Permutation.parse("(3 4)")));
+        assertEquals("", reducer.reduce("aA"));
+        assertEquals("", reducer.reduce("abBA"));
+        assertEquals("A", reducer.reduce("aaaa"));
+        assertEquals("aa", reducer.reduce("AAA"));
+        //b has order two
+        assertEquals("", reducer.reduce("bb"));
+        assertEquals("b", reducer.reduce("B"));
+        //the runs of a merge after the cancellation of b
+        assertEquals("", reducer.reduce("aabBaaa"));
+        assertEquals("ab", reducer.reduce("ab"));
+    }
+
+    @Test
+    void rubiksGroup() {
+        PermutationGroup rubiksGroup = PermutationGroup.RubiksGroup();
+        WordReducer reducer = rubiksGroup.getWordReducer();
+        assertEquals("t", reducer.reduce("TTT"));
+        assertEquals("TT", reducer.reduce("tt"));
+        assertEquals("TLL", reducer.reduce("TTTTTLTtLLLLL"));
+        for (int i = 0; i < 100; i++) {
+            GroupElement element = rubiksGroup.randomElement(50);
+            String word = reducer.reduce(element.getWord());
+            assertEquals(element.getPermutation().toString(), rubiksGroup.wordToPermutation(word).toString());
+        }
+    }
+
+    @Test
+    void nonAsciiLabels() {
+        PermutationGroup group = new PermutationGroup(
+                "Greek S5",
+                new String[]{"a", "\u03a4"},
+                Permutation.parse("(0 1 2 3 4)"),
+                Permutation.parse("(3 4)")
+        );
+        WordReducer reducer = group.getWordReducer();
+        assertEquals("", reducer.reduce("\u03a4\u03c4"));
+        assertEquals("", reducer.reduce("\u03a4\u03a4"));
+        assertEquals("A\u03a4", reducer.reduce("aaaa\u03c4"));
+        //letters that are no generators are kept
+        assertEquals("x\u03a9", reducer.reduce("x\u03a9"));
+    }
+}